@@ -0,0 +1,103 @@
+import java.util.Arrays;
+
+/**
+ * This class answers point-to-point queries with A* search, using the landmark
+ * lower bounds as the heuristic (ALT). A node enters the heap with its distance
+ * from the source plus its lower bound to the target, so the search is pulled
+ * towards the target and settles far fewer nodes than plain Dijkstra's algorithm.
+ * An instance must not be shared between threads
+ * @author Min Chen
+ *
+ */
+public class AltDijkstra
+{
+	private CsrGraph g;
+	private Landmarks landmarks;
+	private int n;
+
+	private DaryHeap heap;
+	private double[] dist;				//infinity between queries
+	private int[] touched;				//nodes whose distance became finite during the current query
+	private int touchedCount;
+	private int settled;				//nodes removed from the heap by the last query
+
+	/**
+	 * constructor
+	 * @param g is the graph
+	 * @param landmarks are the landmarks of g
+	 */
+	public AltDijkstra(CsrGraph g, Landmarks landmarks)
+	{
+		this.g = g;
+		this.landmarks = landmarks;
+		n = g.getNumberOfNodes();
+		heap = new DaryHeap(ssp.DHEAP_ARITY, n);
+		dist = new double[n];
+		Arrays.fill(dist, ssp.INFINITY);
+		touched = new int[n];
+	}
+
+	public Landmarks getLandmarks()
+	{
+		return landmarks;
+	}
+
+	/**
+	 * get the number of nodes settled by the last query
+	 * @return the number of settled nodes
+	 */
+	public int getSettled()
+	{
+		return settled;
+	}
+
+	/**
+	 * compute the shortest distance from a source to a target
+	 * @param source is the index of the source
+	 * @param target is the index of the target
+	 * @return the distance, infinity if the target is unreachable
+	 */
+	public double distance(int source, int target)
+	{
+		int[] offsets = g.getOffsets();
+		int[] targets = g.getTargets();
+		double[] weights = g.getWeights();
+		int u, v;
+		double key;
+		settled = 0;
+
+		dist[source] = 0;
+		touched[0] = source;
+		touchedCount = 1;
+		heap.insert(source, landmarks.lowerBound(source, target));
+
+		while(!heap.isEmpty())
+		{
+			u = heap.extractMin();
+			settled ++;
+			if(u == target)
+				break;
+			for(int e=offsets[u]; e<offsets[u + 1]; e++)
+			{
+				v = targets[e];
+				if(dist[v] > dist[u] + weights[e])
+				{
+					if(dist[v] == ssp.INFINITY)
+						touched[touchedCount++] = v;
+					dist[v] = dist[u] + weights[e];
+					key = dist[v] + landmarks.lowerBound(v, target);
+					if(heap.contains(v))
+						heap.decreaseKey(v, key);
+					else
+						heap.insert(v, key);	//also reopens a settled node, should rounding break consistency
+				}
+			}
+		}
+
+		double d = dist[target];
+		heap.clear();								//reset only the reached nodes for the next query
+		for(int i=0; i<touchedCount; i++)
+			dist[touched[i]] = ssp.INFINITY;
+		return d;
+	}
+}
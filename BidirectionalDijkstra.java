@@ -0,0 +1,144 @@
+import java.util.Arrays;
+
+/**
+ * This class answers point-to-point queries by searching forward from the source
+ * on the graph and backward from the target on the reverse graph at the same time.
+ * Every step expands the side whose heap has the smaller minimum, and the search
+ * stops once the two minimums together are not smaller than the shortest
+ * source-target path seen so far. An instance must not be shared between threads
+ * @author Min Chen
+ *
+ */
+public class BidirectionalDijkstra
+{
+	private CsrGraph g;
+	private CsrGraph r;					//reverse graph
+	private int n;
+
+	private DaryHeap forwardHeap;
+	private DaryHeap backwardHeap;
+	private double[] forwardDist;		//infinity between queries
+	private double[] backwardDist;
+	private int[] forwardTouched;		//nodes whose distance became finite during the current query
+	private int[] backwardTouched;
+	private int forwardCount, backwardCount;
+	private int settled;				//nodes removed from either heap by the last query
+
+	/**
+	 * constructor, build the reverse graph and the two heaps with the default arity
+	 * @param g is the graph
+	 */
+	public BidirectionalDijkstra(CsrGraph g)
+	{
+		this.g = g;
+		r = g.reverse();
+		n = g.getNumberOfNodes();
+		forwardHeap = new DaryHeap(ssp.DHEAP_ARITY, n);
+		backwardHeap = new DaryHeap(ssp.DHEAP_ARITY, n);
+		forwardDist = new double[n];
+		backwardDist = new double[n];
+		Arrays.fill(forwardDist, ssp.INFINITY);
+		Arrays.fill(backwardDist, ssp.INFINITY);
+		forwardTouched = new int[n];
+		backwardTouched = new int[n];
+	}
+
+	/**
+	 * get the number of nodes settled by the last query, counting both directions
+	 * @return the number of settled nodes
+	 */
+	public int getSettled()
+	{
+		return settled;
+	}
+
+	/**
+	 * compute the shortest distance from a source to a target
+	 * @param source is the index of the source
+	 * @param target is the index of the target
+	 * @return the distance, infinity if the target is unreachable
+	 */
+	public double distance(int source, int target)
+	{
+		double best = ssp.INFINITY;			//the shortest source-target path seen so far
+		int u;
+		settled = 0;
+
+		forwardDist[source] = 0;
+		forwardTouched[0] = source;
+		forwardCount = 1;
+		forwardHeap.insert(source, 0);
+		backwardDist[target] = 0;
+		backwardTouched[0] = target;
+		backwardCount = 1;
+		backwardHeap.insert(target, 0);
+		if(source == target)
+			best = 0;
+
+		while(!forwardHeap.isEmpty() && !backwardHeap.isEmpty()
+				&& forwardHeap.getMinDistance() + backwardHeap.getMinDistance() < best)
+		{
+			settled ++;
+			if(forwardHeap.getMinDistance() <= backwardHeap.getMinDistance())
+			{
+				u = forwardHeap.extractMin();
+				best = relax(g, u, forwardHeap, forwardDist, backwardDist, forwardTouched, true, best);
+			}
+			else
+			{
+				u = backwardHeap.extractMin();
+				best = relax(r, u, backwardHeap, backwardDist, forwardDist, backwardTouched, false, best);
+			}
+		}
+
+		forwardHeap.clear();					//reset only the reached nodes for the next query
+		backwardHeap.clear();
+		for(int i=0; i<forwardCount; i++)
+			forwardDist[forwardTouched[i]] = ssp.INFINITY;
+		for(int i=0; i<backwardCount; i++)
+			backwardDist[backwardTouched[i]] = ssp.INFINITY;
+		return best;
+	}
+
+	/**
+	 * relax the edges leaving u in one direction of the search
+	 * @param graph is the graph of this direction
+	 * @param u is the node just removed from the heap
+	 * @param heap is the heap of this direction
+	 * @param dist is the distance array of this direction
+	 * @param other is the distance array of the opposite direction
+	 * @param touched is the reached node list of this direction
+	 * @param forward whether this is the forward direction
+	 * @param best the shortest source-target path seen so far
+	 * @return the shortest source-target path seen after relaxing
+	 */
+	private double relax(CsrGraph graph, int u, DaryHeap heap, double[] dist, double[] other,
+			int[] touched, boolean forward, double best)
+	{
+		int[] offsets = graph.getOffsets();
+		int[] targets = graph.getTargets();
+		double[] weights = graph.getWeights();
+		int v;
+		for(int e=offsets[u]; e<offsets[u + 1]; e++)
+		{
+			v = targets[e];
+			if(dist[v] > dist[u] + weights[e])
+			{
+				dist[v] = dist[u] + weights[e];
+				if(heap.contains(v))
+					heap.decreaseKey(v, dist[v]);
+				else
+				{
+					if(forward)
+						touched[forwardCount++] = v;
+					else
+						touched[backwardCount++] = v;
+					heap.insert(v, dist[v]);
+				}
+				if(dist[v] + other[v] < best)	//the two searches meet at v
+					best = dist[v] + other[v];
+			}
+		}
+		return best;
+	}
+}
@@ -0,0 +1,46 @@
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * This class writes the shortest distance rows in binary form: the number of
+ * nodes n as a big-endian int, then for every source its index as an int
+ * followed by n big-endian doubles, unreachable nodes are infinity
+ * @author Min Chen
+ *
+ */
+public class BinaryRowSink implements RowSink
+{
+	private OutputStream out;
+	private ByteBuffer buffer;
+
+	/**
+	 * constructor
+	 * @param out is the stream the rows are written to, it is closed at the end
+	 */
+	public BinaryRowSink(OutputStream out)
+	{
+		this.out = new BufferedOutputStream(out, 1 << 16);
+	}
+
+	public void begin(int n) throws IOException
+	{
+		buffer = ByteBuffer.allocate(4 + 8 * n);
+		buffer.putInt(n);
+		out.write(buffer.array(), 0, 4);
+	}
+
+	public void row(int source, double[] dist) throws IOException
+	{
+		buffer.clear();
+		buffer.putInt(source);
+		buffer.asDoubleBuffer().put(dist);
+		out.write(buffer.array(), 0, buffer.capacity());
+	}
+
+	public void end() throws IOException
+	{
+		out.close();
+	}
+}
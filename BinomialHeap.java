@@ -1,3 +1,6 @@
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
 /**
  * This class implements binomial heap 
  * @author Min Chen
@@ -6,13 +9,26 @@
 public class BinomialHeap 
 {
   private Bnode root;
+	private Bnode[] handles;		//handles[i] is the heap node currently holding vertex i, null if i is not in the heap
+	private SearchMetrics metrics = SearchMetrics.NONE;
 	
 	/**
 	 * constructor, create a null heap 
 	 */
 	public BinomialHeap()
+	{
+		this(16);
+	}
+	
+	/**
+	 * constructor, create a null heap whose handle table
+	 * can hold vertices 0..capacity-1 without growing
+	 * @param capacity the expected number of vertices
+	 */
+	public BinomialHeap(int capacity)
 	{
 		root = null;
+		handles = new Bnode[Math.max(capacity, 1)];
 	}
 	
 	/**
@@ -22,6 +38,8 @@ public class BinomialHeap
 	public BinomialHeap(Bnode node)
 	{
 		root = node;
+		handles = new Bnode[node.getIndex() + 1];
+		handles[node.getIndex()] = node;
 	}
 	
 	/**
@@ -121,6 +139,16 @@ public class BinomialHeap
 		y.setSibling(z.getChild());			//if z has no child, y has no sibling
 		z.setChild(y);
 		z.increaseDgree();
+		metrics.linked();
+	}
+	
+	/**
+	 * set the recorder of the heap operations
+	 * @param metrics the recorder, SearchMetrics.NONE to stop recording
+	 */
+	public void setMetrics(SearchMetrics metrics)
+	{
+		this.metrics = metrics;
 	}
 	
 	/**
@@ -156,9 +184,19 @@ public class BinomialHeap
 	 * @param h the heap to be merged with this heap
 	 */
 	public void merge(BinomialHeap h)   
+	{
+		merge(h.getRoot());
+	}
+	
+	/**
+	 * merge the root list with another root list, 
+	 * the degrees in the merged root list appear
+	 * in monotonically increasing order						
+	 * @param b the first root of the list, in increasing order of degree
+	 */
+	private void merge(Bnode b)   
 	{
 		Bnode a = root;
-		Bnode b = h.getRoot();
 		// if b == null, do nothing
 		if(a== null && b!=null)
 			root = b;
@@ -197,12 +235,33 @@ public class BinomialHeap
 	}
 
 	/**
-	 * merge two heaps, and link the nodes with the same degree in the root list
+	 * merge two heaps, and link the nodes with the same degree in the root list,
+	 * h is empty afterwards and the handles of its nodes move to the handle table of this heap
 	 * @param h the heap to be united with this heap
 	 */
 	public void union(BinomialHeap h)
 	{
-		this.merge(h);
+		for(Bnode x : h.handles)
+			if(x != null)
+			{
+				if(x.getIndex() >= handles.length)
+					handles = Arrays.copyOf(handles, Math.max(x.getIndex() + 1, handles.length * 2));
+				handles[x.getIndex()] = x;
+			}
+		Arrays.fill(h.handles, null);
+		Bnode b = h.getRoot();
+		h.root = null;
+		this.union(b);
+	}
+	
+	/**
+	 * merge a root list into the heap, and link the nodes with the same degree in the root list,
+	 * no handle is changed
+	 * @param b the first root of the list, in increasing order of degree
+	 */
+	private void union(Bnode b)
+	{
+		this.merge(b);
 		
 		if(root != null)
 		{
@@ -247,15 +306,40 @@ public class BinomialHeap
 	}
 
 	/**
-	 * insert a new node into the heap
+	 * insert a new node into the heap, and record it in the handle table
 	 * @param index the new node's index
 	 * @param distance the new node's value of distance
 	 */
 	public void insert(int index, double distance)
 	{
 		Bnode bnode = new Bnode(index, distance);
-		BinomialHeap h = new BinomialHeap(bnode);
-		this.union(h);
+		this.union(bnode);
+		
+		if(index >= handles.length)
+			handles = Arrays.copyOf(handles, Math.max(index + 1, handles.length * 2));
+		handles[index] = bnode;
+		metrics.inserted();
+	}
+	
+	/**
+	 * test whether the node with certain index is in the heap
+	 * @param index the index value of the node
+	 * @return true if the node is in the heap
+	 */
+	public boolean contains(int index)
+	{
+		return index < handles.length && handles[index] != null;
+	}
+	
+	/**
+	 * get the heap node currently holding certain index, without searching the heap,
+	 * the result is only valid until the next decreaseKey(), which may move the index
+	 * @param index the index value of the node
+	 * @return the heap node, null if the index is not in the heap
+	 */
+	public Bnode getNode(int index)
+	{
+		return index < handles.length ? handles[index] : null;
 	}
 	
 	/**
@@ -312,10 +396,12 @@ public class BinomialHeap
 		if(child != null)
 		{
 			child = this.reverseList(child);
-			BinomialHeap h = new BinomialHeap(child);
-			this.union(h);
+			this.union(child);
 		}
 
+		if(min.getIndex() < handles.length && handles[min.getIndex()] == min)
+			handles[min.getIndex()] = null;
+		metrics.extracted();
 		return min;
 	}
 
@@ -333,6 +419,7 @@ public class BinomialHeap
 		}
 		
 		x.setDistance(d);
+		metrics.decreased();
 		
 		Bnode y = x;
 		Bnode z = y.getParent();
@@ -344,12 +431,49 @@ public class BinomialHeap
 			y.setDistance(z.getDistance());
 			z.setIndex(index);
 			z.setDistance(dist);
+			if(y.getIndex() < handles.length)	//the two indices moved, so do their handles
+				handles[y.getIndex()] = y;
+			if(z.getIndex() < handles.length)
+				handles[z.getIndex()] = z;
 			
 			y = z;
 			z = y.getParent();
 		}
 	}
 	
+	/**
+	 * decrease the distance value of the node with certain index to d,
+	 * the node is located through the handle table instead of searchNode()
+	 * @param index the index value of a node in the heap
+	 * @param d the new value of distance
+	 */
+	public void decreaseKey(int index, double d)
+	{
+		this.decreaseKey(handles[index], d);
+	}
+	
+	/**
+	 * remove all nodes from the heap, and clear their handles
+	 */
+	public void clear()
+	{
+		ArrayDeque<Bnode> stack = new ArrayDeque<Bnode>();	//the lists still to be visited
+		if(root != null)
+			stack.push(root);
+		Bnode x;
+		while(!stack.isEmpty())
+		{
+			for(x = stack.pop(); x != null; x = x.getSibling())
+			{
+				if(x.getIndex() < handles.length)
+					handles[x.getIndex()] = null;
+				if(x.getChild() != null)
+					stack.push(x.getChild());
+			}
+		}
+		root = null;
+	}
+	
 	/**
 	 * find the node with certain index from the heap rooted at x
 	 * @param index represents the index value of the wanted node
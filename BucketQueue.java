@@ -0,0 +1,183 @@
+import java.util.Arrays;
+
+/**
+ * This class implements Dial's bucket queue for integer distances.
+ * Dijkstra's algorithm extracts distances in non-decreasing order, and every
+ * distance in the queue is at most the largest edge weight C above the last
+ * extracted one, so C+1 buckets used circularly hold all of them. Every bucket
+ * is a doubly linked list threaded through primitive arrays, so insert and
+ * decreaseKey take constant time and extractMin only advances a cursor over
+ * the buckets, no comparison of distances is ever made
+ * @author Min Chen
+ *
+ */
+public class BucketQueue
+{
+	private int buckets;				//number of buckets, the largest weight + 1
+	private int[] head;					//head[b] is the first node of bucket b, -1 if the bucket is empty
+	private int[] next;					//next[i] and previous[i] link node i into its bucket
+	private int[] previous;
+	private int[] bucket;				//bucket[i] is the bucket of node i, -1 if i is not in the queue
+	private int size;
+	private int cursor;					//bucket of the last extracted distance
+	private long current;				//last extracted distance
+	private SearchMetrics metrics = SearchMetrics.NONE;
+
+	/**
+	 * constructor, create an empty queue
+	 * @param maxWeight the largest edge weight of the graph
+	 * @param capacity the node indices must be in 0..capacity-1
+	 */
+	public BucketQueue(int maxWeight, int capacity)
+	{
+		buckets = maxWeight + 1;
+		head = new int[buckets];
+		next = new int[capacity];
+		previous = new int[capacity];
+		bucket = new int[capacity];
+		Arrays.fill(head, -1);
+		Arrays.fill(bucket, -1);
+	}
+
+	/**
+	 * get the largest weight of a graph, if the queue can handle its weights
+	 * @param g is the graph
+	 * @param range is the largest weight accepted
+	 * @return the largest weight, -1 if a weight is not an integer in 0..range
+	 */
+	public static int maxWeight(CsrGraph g, int range)
+	{
+		double max = 0;
+		for(double w : g.getWeights())
+		{
+			if(!(w >= 0 && w <= range) || w != Math.rint(w))	//also rejects NaN
+				return -1;
+			max = Math.max(max, w);
+		}
+		return (int) max;
+	}
+
+	/**
+	 * set the recorder of the queue operations
+	 * @param metrics the recorder, SearchMetrics.NONE to stop recording
+	 */
+	public void setMetrics(SearchMetrics metrics)
+	{
+		this.metrics = metrics;
+	}
+
+	public int getSize()
+	{
+		return size;
+	}
+
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	/**
+	 * test whether the node with certain index is in the queue
+	 * @param index the index value of the node
+	 * @return true if the node is in the queue
+	 */
+	public boolean contains(int index)
+	{
+		return bucket[index] >= 0;
+	}
+
+	/**
+	 * insert a new node into the queue
+	 * @param index the new node's index, must not be in the queue
+	 * @param d the new node's distance, an integer not below the last extracted distance
+	 * and at most the largest weight above it
+	 */
+	public void insert(int index, double d)
+	{
+		link(index, (int) ((long) d % buckets));
+		size ++;
+		metrics.inserted();
+	}
+
+	/**
+	 * remove a node with the minimum distance from the queue
+	 * @return the index of the removed node
+	 */
+	public int extractMin()
+	{
+		while(head[cursor] < 0)				//the queue is not empty, so a bucket within C+1 steps holds a node
+		{
+			cursor = cursor + 1 == buckets ? 0 : cursor + 1;
+			current ++;
+		}
+		int min = head[cursor];
+		unlink(min);
+		size --;
+		metrics.extracted();
+		return min;
+	}
+
+	/**
+	 * get the distance of the node returned by the last extractMin()
+	 * @return the distance
+	 */
+	public double getCurrent()
+	{
+		return current;
+	}
+
+	/**
+	 * decrease the distance of the node with certain index to d
+	 * @param index the index value of a node in the queue
+	 * @param d the new distance, an integer not below the last extracted distance
+	 */
+	public void decreaseKey(int index, double d)
+	{
+		unlink(index);
+		link(index, (int) ((long) d % buckets));
+		metrics.decreased();
+	}
+
+	/**
+	 * remove all nodes from the queue, and restart the distances from 0
+	 */
+	public void clear()
+	{
+		for(int b=0; size > 0; b++)			//only buckets that may still hold nodes are visited
+			while(head[b] >= 0)
+			{
+				unlink(head[b]);
+				size --;
+			}
+		cursor = 0;
+		current = 0;
+	}
+
+	/**
+	 * add node i at the front of bucket b
+	 */
+	private void link(int i, int b)
+	{
+		bucket[i] = b;
+		previous[i] = -1;
+		next[i] = head[b];
+		if(head[b] >= 0)
+			previous[head[b]] = i;
+		head[b] = i;
+	}
+
+	/**
+	 * remove node i from its bucket
+	 */
+	private void unlink(int i)
+	{
+		int b = bucket[i];
+		if(previous[i] >= 0)
+			next[previous[i]] = next[i];
+		else
+			head[b] = next[i];
+		if(next[i] >= 0)
+			previous[next[i]] = previous[i];
+		bucket[i] = -1;
+	}
+}
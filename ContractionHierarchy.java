@@ -0,0 +1,537 @@
+import java.util.Arrays;
+
+/**
+ * This class implements contraction hierarchies for repeated point-to-point queries
+ * on a static graph. Preprocessing contracts the nodes one by one in order of
+ * importance (edge difference plus contracted neighbors, updated lazily). When a
+ * node v is contracted, a shortcut u->w is added for every in-neighbor u and
+ * out-neighbor w unless a witness search finds a path from u to w avoiding v that
+ * is not longer than u->v->w. A query then runs a bidirectional Dijkstra that only
+ * follows edges towards nodes contracted later: forward from the source on the upward
+ * graph and backward from the target on the reversed downward graph.
+ * On graphs without a hierarchy, such as random ones, the shortcuts grow quickly and
+ * a query settles more nodes than a plain bidirectional search. Once the shortcuts
+ * outnumber MAX_SHORTCUT_RATIO times the edges of the graph the preprocessing is
+ * abandoned, and the queries are answered by a bidirectional search instead.
+ * A query must not be run by several threads at the same time
+ * @author Min Chen
+ *
+ */
+public class ContractionHierarchy
+{
+	private static final int WITNESS_LIMIT = 500;	//a witness search settles at most this many nodes
+	private static final double MAX_SHORTCUT_RATIO = 2.0;	//the hierarchy is abandoned beyond this many shortcuts per edge
+
+	private int n;
+	private int[] rank;					//rank[v] is the position of v in the contraction order
+	private CsrGraph up;				//edges u->v with rank[v] > rank[u]
+	private CsrGraph down;				//edges u->v with rank[u] > rank[v], stored reversed as v->u
+	private int shortcuts;
+	private long preprocessingTime;
+	private BidirectionalDijkstra fallback;		//answers the queries if the hierarchy was abandoned, otherwise null
+
+	private DaryHeap forwardHeap;
+	private DaryHeap backwardHeap;
+	private double[] forwardDist;		//infinity between queries
+	private double[] backwardDist;
+	private int[] forwardTouched;
+	private int[] backwardTouched;
+	private int forwardCount, backwardCount;
+	private int settled;
+
+	/**
+	 * constructor, preprocess the graph
+	 * @param g is the graph
+	 */
+	public ContractionHierarchy(CsrGraph g)
+	{
+		long time = System.currentTimeMillis();
+		n = g.getNumberOfNodes();
+		Builder builder = new Builder(g);
+		builder.build();
+		rank = builder.rank;
+		up = builder.up;
+		down = builder.down;
+		shortcuts = builder.shortcuts;
+		if(builder.abandoned)
+		{
+			Arrays.fill(rank, -1);
+			fallback = new BidirectionalDijkstra(g);
+		}
+		preprocessingTime = System.currentTimeMillis() - time;
+		if(fallback != null)
+			return;
+
+		forwardHeap = new DaryHeap(ssp.DHEAP_ARITY, n);
+		backwardHeap = new DaryHeap(ssp.DHEAP_ARITY, n);
+		forwardDist = new double[n];
+		backwardDist = new double[n];
+		Arrays.fill(forwardDist, ssp.INFINITY);
+		Arrays.fill(backwardDist, ssp.INFINITY);
+		forwardTouched = new int[n];
+		backwardTouched = new int[n];
+	}
+
+	/**
+	 * get the number of shortcut edges added by the preprocessing,
+	 * until it was abandoned if the hierarchy was not built
+	 * @return the number of shortcuts
+	 */
+	public int getShortcuts()
+	{
+		return shortcuts;
+	}
+
+	/**
+	 * test whether the queries run on the hierarchy, or on the bidirectional
+	 * search because the preprocessing was abandoned
+	 * @return true if the hierarchy was built
+	 */
+	public boolean hasHierarchy()
+	{
+		return fallback == null;
+	}
+
+	/**
+	 * get the time spent by the preprocessing
+	 * @return the time in milliseconds
+	 */
+	public long getPreprocessingTime()
+	{
+		return preprocessingTime;
+	}
+
+	/**
+	 * get the position of a node in the contraction order
+	 * @param v is the index of the node
+	 * @return the rank of v, 0 for the first contracted node, -1 if the hierarchy was abandoned
+	 */
+	public int getRank(int v)
+	{
+		return rank[v];
+	}
+
+	/**
+	 * get the number of nodes settled by the last query, counting both directions
+	 * @return the number of settled nodes
+	 */
+	public int getSettled()
+	{
+		return settled;
+	}
+
+	/**
+	 * compute the shortest distance from a source to a target
+	 * @param source is the index of the source
+	 * @param target is the index of the target
+	 * @return the distance, infinity if the target is unreachable
+	 */
+	public double distance(int source, int target)
+	{
+		double best = ssp.INFINITY;
+		boolean forwardDone, backwardDone;
+		int u;
+		if(fallback != null)
+		{
+			best = fallback.distance(source, target);
+			settled = fallback.getSettled();
+			return best;
+		}
+		settled = 0;
+
+		forwardDist[source] = 0;
+		forwardTouched[0] = source;
+		forwardCount = 1;
+		forwardHeap.insert(source, 0);
+		backwardDist[target] = 0;
+		backwardTouched[0] = target;
+		backwardCount = 1;
+		backwardHeap.insert(target, 0);
+
+		while(true)
+		{
+			//a direction is finished once nothing left in its heap can improve the best path
+			forwardDone = forwardHeap.isEmpty() || forwardHeap.getMinDistance() >= best;
+			backwardDone = backwardHeap.isEmpty() || backwardHeap.getMinDistance() >= best;
+			if(forwardDone && backwardDone)
+				break;
+
+			settled ++;
+			if(!forwardDone && (backwardDone || forwardHeap.getMinDistance() <= backwardHeap.getMinDistance()))
+			{
+				u = forwardHeap.extractMin();
+				if(forwardDist[u] + backwardDist[u] < best)		//the two searches meet at u
+					best = forwardDist[u] + backwardDist[u];
+				relax(up, u, forwardHeap, forwardDist, forwardTouched, true);
+			}
+			else
+			{
+				u = backwardHeap.extractMin();
+				if(forwardDist[u] + backwardDist[u] < best)
+					best = forwardDist[u] + backwardDist[u];
+				relax(down, u, backwardHeap, backwardDist, backwardTouched, false);
+			}
+		}
+
+		forwardHeap.clear();					//reset only the reached nodes for the next query
+		backwardHeap.clear();
+		for(int i=0; i<forwardCount; i++)
+			forwardDist[forwardTouched[i]] = ssp.INFINITY;
+		for(int i=0; i<backwardCount; i++)
+			backwardDist[backwardTouched[i]] = ssp.INFINITY;
+		return best;
+	}
+
+	/**
+	 * relax the edges leaving u in one direction of the query
+	 * @param graph is the search graph of this direction
+	 * @param u is the node just removed from the heap
+	 * @param heap is the heap of this direction
+	 * @param dist is the distance array of this direction
+	 * @param touched is the reached node list of this direction
+	 * @param forward whether this is the forward direction
+	 */
+	private void relax(CsrGraph graph, int u, DaryHeap heap, double[] dist, int[] touched, boolean forward)
+	{
+		int[] offsets = graph.getOffsets();
+		int[] targets = graph.getTargets();
+		double[] weights = graph.getWeights();
+		int v;
+		for(int e=offsets[u]; e<offsets[u + 1]; e++)
+		{
+			v = targets[e];
+			if(dist[v] > dist[u] + weights[e])
+			{
+				dist[v] = dist[u] + weights[e];
+				if(heap.contains(v))
+					heap.decreaseKey(v, dist[v]);
+				else
+				{
+					if(forward)
+						touched[forwardCount++] = v;
+					else
+						touched[backwardCount++] = v;
+					heap.insert(v, dist[v]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Inner class holding the state of the preprocessing,
+	 * it is dropped once the search graphs are built
+	 */
+	private static class Builder
+	{
+		private int n;
+		private int[][] outTarget, inTarget;		//edges between nodes not yet contracted
+		private double[][] outWeight, inWeight;
+		private int[] outSize, inSize;
+		private int[][] upTarget, downTarget;		//edges of the search graphs, filled as nodes are contracted
+		private double[][] upWeight, downWeight;
+		private int[] upSize, downSize;
+		private int[] deleted;						//number of contracted neighbors of every node
+		private int[] position;						//position[w] is the index of w in the out-list of the marked node
+		private int[] marked;						//position[w] is valid if marked[w] == stamp
+		private int stamp;
+		private long edges;							//edges of the graph without loops and parallel edges
+
+		private DaryHeap witnessHeap;
+		private double[] witnessDist;				//infinity between witness searches
+		private int[] witnessTouched;
+		private int witnessCount;
+
+		private int[] rank;
+		private CsrGraph up, down;
+		private int shortcuts;
+		private boolean abandoned;
+
+		Builder(CsrGraph g)
+		{
+			n = g.getNumberOfNodes();
+			outTarget = new int[n][];
+			inTarget = new int[n][];
+			outWeight = new double[n][];
+			inWeight = new double[n][];
+			outSize = new int[n];
+			inSize = new int[n];
+			upTarget = new int[n][];
+			downTarget = new int[n][];
+			upWeight = new double[n][];
+			downWeight = new double[n][];
+			upSize = new int[n];
+			downSize = new int[n];
+			deleted = new int[n];
+			rank = new int[n];
+			position = new int[n];
+			marked = new int[n];
+			for(int v=0; v<n; v++)
+			{
+				outTarget[v] = new int[Math.max(g.getDegree(v), 1)];
+				outWeight[v] = new double[outTarget[v].length];
+				inTarget[v] = new int[2];
+				inWeight[v] = new double[2];
+			}
+
+			int[] offsets = g.getOffsets();
+			int[] targets = g.getTargets();
+			double[] weights = g.getWeights();
+			for(int u=0; u<n; u++)
+			{
+				mark(u);
+				for(int e=offsets[u]; e<offsets[u + 1]; e++)
+					if(targets[e] != u && addEdge(u, targets[e], weights[e]))	//a loop never lies on a shortest path
+						edges ++;
+			}
+
+			witnessHeap = new DaryHeap(ssp.DHEAP_ARITY, n);
+			witnessDist = new double[n];
+			Arrays.fill(witnessDist, ssp.INFINITY);
+			witnessTouched = new int[n];
+		}
+
+		/**
+		 * contract all nodes in order of importance, and build the search graphs
+		 */
+		void build()
+		{
+			DaryHeap queue = new DaryHeap(ssp.DHEAP_ARITY, n);
+			for(int v=0; v<n; v++)
+				queue.insert(v, priority(v));
+
+			int next = 0;
+			int v;
+			double p;
+			while(!queue.isEmpty())
+			{
+				if(shortcuts > MAX_SHORTCUT_RATIO * edges)		//no hierarchy worth building
+				{
+					abandoned = true;
+					return;
+				}
+				v = queue.extractMin();
+				p = priority(v);						//lazy update, the priority may have grown
+				if(!queue.isEmpty() && p > queue.getMinDistance())
+				{
+					queue.insert(v, p);
+					continue;
+				}
+				contractNode(v);
+				rank[v] = next ++;
+			}
+
+			up = toCsr(upTarget, upWeight, upSize);
+			down = toCsr(downTarget, downWeight, downSize);
+		}
+
+		/**
+		 * the importance of a node, nodes with lower values are contracted first
+		 * @param v is the index of the node
+		 * @return edge difference plus the number of contracted neighbors
+		 */
+		private double priority(int v)
+		{
+			return contract(v, true) - inSize[v] - outSize[v] + deleted[v];
+		}
+
+		/**
+		 * contract node v: move its edges to the search graphs,
+		 * add the needed shortcuts, and remove v from the remaining graph
+		 * @param v is the index of the node
+		 */
+		private void contractNode(int v)
+		{
+			for(int i=0; i<outSize[v]; i++)
+				append(upTarget, upWeight, upSize, v, outTarget[v][i], outWeight[v][i]);
+			for(int i=0; i<inSize[v]; i++)
+				append(downTarget, downWeight, downSize, v, inTarget[v][i], inWeight[v][i]);
+
+			shortcuts += contract(v, false);
+
+			for(int i=0; i<inSize[v]; i++)
+			{
+				remove(outTarget, outWeight, outSize, inTarget[v][i], v);
+				deleted[inTarget[v][i]] ++;
+			}
+			for(int i=0; i<outSize[v]; i++)
+			{
+				remove(inTarget, inWeight, inSize, outTarget[v][i], v);
+				deleted[outTarget[v][i]] ++;
+			}
+			outSize[v] = 0;
+			inSize[v] = 0;
+		}
+
+		/**
+		 * find the shortcuts needed when v is contracted
+		 * @param v is the index of the node
+		 * @param simulate if true, only count the shortcuts
+		 * @return the number of shortcuts (new edges) needed
+		 */
+		private int contract(int v, boolean simulate)
+		{
+			int count = 0;
+			int u, w;
+			double maxOut = 0, via;
+			for(int j=0; j<outSize[v]; j++)
+				maxOut = Math.max(maxOut, outWeight[v][j]);
+
+			for(int i=0; i<inSize[v]; i++)
+			{
+				u = inTarget[v][i];
+				witness(u, v, inWeight[v][i] + maxOut);
+				if(!simulate)
+					mark(u);
+				for(int j=0; j<outSize[v]; j++)
+				{
+					w = outTarget[v][j];
+					via = inWeight[v][i] + outWeight[v][j];
+					if(w != u && witnessDist[w] > via)		//no witness, the path through v is needed
+					{
+						if(simulate)
+							count ++;
+						else if(addEdge(u, w, via))
+							count ++;
+					}
+				}
+				for(int k=0; k<witnessCount; k++)			//reset the witness search
+					witnessDist[witnessTouched[k]] = ssp.INFINITY;
+				witnessHeap.clear();
+			}
+			return count;
+		}
+
+		/**
+		 * bounded Dijkstra's algorithm from u on the remaining graph without v,
+		 * the distances are left in witnessDist
+		 * @param u is the start of the search
+		 * @param v is the node being contracted
+		 * @param maxDist the search stops beyond this distance
+		 */
+		private void witness(int u, int v, double maxDist)
+		{
+			int x, y, settledNodes = 0;
+			witnessDist[u] = 0;
+			witnessTouched[0] = u;
+			witnessCount = 1;
+			witnessHeap.insert(u, 0);
+			while(!witnessHeap.isEmpty() && witnessHeap.getMinDistance() <= maxDist && settledNodes < WITNESS_LIMIT)
+			{
+				x = witnessHeap.extractMin();
+				settledNodes ++;
+				for(int i=0; i<outSize[x]; i++)
+				{
+					y = outTarget[x][i];
+					if(y != v && witnessDist[y] > witnessDist[x] + outWeight[x][i])
+					{
+						if(witnessDist[y] == ssp.INFINITY)
+							witnessTouched[witnessCount++] = y;
+						witnessDist[y] = witnessDist[x] + outWeight[x][i];
+						if(witnessHeap.contains(y))
+							witnessHeap.decreaseKey(y, witnessDist[y]);
+						else
+							witnessHeap.insert(y, witnessDist[y]);
+					}
+				}
+			}
+		}
+
+		/**
+		 * record the positions of the out-neighbors of u, so addEdge() finds an
+		 * existing edge of u without scanning its out-list
+		 * @param u is the index of the node
+		 */
+		private void mark(int u)
+		{
+			stamp ++;
+			for(int i=0; i<outSize[u]; i++)
+			{
+				position[outTarget[u][i]] = i;
+				marked[outTarget[u][i]] = stamp;
+			}
+		}
+
+		/**
+		 * add edge u->w to the remaining graph, or shorten it if it exists,
+		 * u must be the node last passed to mark()
+		 * @param u starting point of the edge
+		 * @param w ending point of the edge
+		 * @param d distance of the edge
+		 * @return true if a new edge is added
+		 */
+		private boolean addEdge(int u, int w, double d)
+		{
+			if(marked[w] == stamp)
+			{
+				int i = position[w];
+				if(d < outWeight[u][i])
+				{
+					outWeight[u][i] = d;
+					for(int j=0; j<inSize[w]; j++)		//only a shorter edge looks for its twin in the in-list
+						if(inTarget[w][j] == u)
+							inWeight[w][j] = d;
+				}
+				return false;
+			}
+			position[w] = outSize[u];
+			marked[w] = stamp;
+			append(outTarget, outWeight, outSize, u, w, d);
+			append(inTarget, inWeight, inSize, w, u, d);
+			return true;
+		}
+
+		/**
+		 * append an entry to the list of node u
+		 */
+		private static void append(int[][] target, double[][] weight, int[] size, int u, int w, double d)
+		{
+			if(target[u] == null)
+			{
+				target[u] = new int[2];
+				weight[u] = new double[2];
+			}
+			else if(size[u] == target[u].length)
+			{
+				target[u] = Arrays.copyOf(target[u], size[u] * 2);
+				weight[u] = Arrays.copyOf(weight[u], size[u] * 2);
+			}
+			target[u][size[u]] = w;
+			weight[u][size[u]] = d;
+			size[u] ++;
+		}
+
+		/**
+		 * remove the entry w from the list of node u, the last entry takes its place
+		 */
+		private static void remove(int[][] target, double[][] weight, int[] size, int u, int w)
+		{
+			for(int i=0; i<size[u]; i++)
+				if(target[u][i] == w)
+				{
+					size[u] --;
+					target[u][i] = target[u][size[u]];
+					weight[u][i] = weight[u][size[u]];
+					return;
+				}
+		}
+
+		/**
+		 * pack the lists into a graph in compressed sparse row form
+		 */
+		private CsrGraph toCsr(int[][] target, double[][] weight, int[] size)
+		{
+			int[] offsets = new int[n + 1];
+			for(int v=0; v<n; v++)
+				offsets[v + 1] = offsets[v] + size[v];
+			int[] targets = new int[offsets[n]];
+			double[] weights = new double[offsets[n]];
+			for(int v=0; v<n; v++)
+				if(size[v] > 0)
+				{
+					System.arraycopy(target[v], 0, targets, offsets[v], size[v]);
+					System.arraycopy(weight[v], 0, weights, offsets[v], size[v]);
+				}
+			return new CsrGraph(offsets, targets, weights);
+		}
+	}
+}
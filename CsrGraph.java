@@ -0,0 +1,170 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class implements the directed graph in compressed sparse row form.
+ * The outgoing edges of node i are stored in the slots offsets[i]..offsets[i+1]-1
+ * of targets (ending points) and weights (distances).
+ * Every graph built gets a new version stamp, so results computed on one graph
+ * are never mistaken for results on a graph rebuilt later
+ * @author Min Chen
+ *
+ */
+public class CsrGraph
+{
+	private static final AtomicLong VERSIONS = new AtomicLong();
+
+	private long version = VERSIONS.incrementAndGet();
+	private int n;
+	private int[] offsets;
+	private int[] targets;
+	private double[] weights;
+
+	/**
+	 * constructor, build the graph from the edge information,
+	 * the edges of a node keep the order in which they are given
+	 * @param edges represents edges in the graph
+	 * @param n is the number of nodes
+	 */
+	public CsrGraph(Edge[] edges, int n)
+	{
+		this.n = n;
+		offsets = new int[n + 1];
+		targets = new int[edges.length];
+		weights = new double[edges.length];
+
+		for(Edge e : edges)						//count the out-degree of every node
+			offsets[e.getStart() + 1] ++;
+		for(int i=0; i<n; i++)
+			offsets[i + 1] += offsets[i];
+
+		int[] next = new int[n];				//next free slot of every node
+		System.arraycopy(offsets, 0, next, 0, n);
+		int slot;
+		for(Edge e : edges)
+		{
+			slot = next[e.getStart()] ++;
+			targets[slot] = e.getEnd();
+			weights[slot] = e.getDistance();
+		}
+	}
+
+	/**
+	 * constructor, build the graph from edges given as parallel arrays,
+	 * the edges of a node keep the order in which they are given
+	 * @param starts the starting point of every edge
+	 * @param ends the ending point of every edge
+	 * @param distances the distance of every edge
+	 * @param m is the number of edges, only the first m entries of the arrays are used
+	 * @param n is the number of nodes
+	 */
+	public CsrGraph(int[] starts, int[] ends, double[] distances, int m, int n)
+	{
+		this.n = n;
+		offsets = new int[n + 1];
+		targets = new int[m];
+		weights = new double[m];
+
+		for(int e=0; e<m; e++)					//count the out-degree of every node
+			offsets[starts[e] + 1] ++;
+		for(int i=0; i<n; i++)
+			offsets[i + 1] += offsets[i];
+
+		int[] next = new int[n];				//next free slot of every node
+		System.arraycopy(offsets, 0, next, 0, n);
+		int slot;
+		for(int e=0; e<m; e++)
+		{
+			slot = next[starts[e]] ++;
+			targets[slot] = ends[e];
+			weights[slot] = distances[e];
+		}
+	}
+
+	/**
+	 * constructor, wrap arrays that are already in compressed sparse row form
+	 * @param offsets has n+1 entries, offsets[n] is the number of edges
+	 * @param targets the ending point of every edge
+	 * @param weights the distance of every edge
+	 */
+	public CsrGraph(int[] offsets, int[] targets, double[] weights)
+	{
+		this.n = offsets.length - 1;
+		this.offsets = offsets;
+		this.targets = targets;
+		this.weights = weights;
+	}
+
+	public int getNumberOfNodes()
+	{
+		return n;
+	}
+
+	/**
+	 * get the version stamp of the graph, unique among the graphs built by this program
+	 * @return the version
+	 */
+	public long getVersion()
+	{
+		return version;
+	}
+
+	public int getNumberOfEdges()
+	{
+		return offsets[n];
+	}
+
+	/**
+	 * get the number of outgoing edges of a node
+	 * @param i is the index of the node
+	 * @return the out-degree of node i
+	 */
+	public int getDegree(int i)
+	{
+		return offsets[i + 1] - offsets[i];
+	}
+
+	/**
+	 * build the reverse graph, in which every edge points the other way,
+	 * the incoming edges of node i become its outgoing edges
+	 * @return the reverse graph
+	 */
+	public CsrGraph reverse()
+	{
+		int m = getNumberOfEdges();
+		int[] rOffsets = new int[n + 1];
+		int[] rTargets = new int[m];
+		double[] rWeights = new double[m];
+
+		for(int e=0; e<m; e++)					//count the in-degree of every node
+			rOffsets[targets[e] + 1] ++;
+		for(int i=0; i<n; i++)
+			rOffsets[i + 1] += rOffsets[i];
+
+		int[] next = new int[n];
+		System.arraycopy(rOffsets, 0, next, 0, n);
+		int slot;
+		for(int u=0; u<n; u++)
+			for(int e=offsets[u]; e<offsets[u + 1]; e++)
+			{
+				slot = next[targets[e]] ++;
+				rTargets[slot] = u;
+				rWeights[slot] = weights[e];
+			}
+		return new CsrGraph(rOffsets, rTargets, rWeights);
+	}
+
+	public int[] getOffsets()
+	{
+		return offsets;
+	}
+
+	public int[] getTargets()
+	{
+		return targets;
+	}
+
+	public double[] getWeights()
+	{
+		return weights;
+	}
+}
@@ -0,0 +1,200 @@
+import java.util.Arrays;
+
+/**
+ * This class implements an indexed d-ary min heap on primitive arrays.
+ * Entries are node indices in 0..capacity-1, a position table maps every
+ * index to its slot in the heap, so decreaseKey needs no search and
+ * no node object is allocated per entry
+ * @author Min Chen
+ *
+ */
+public class DaryHeap
+{
+	private int arity;
+	private int size;
+	private int[] heap;				//heap[i] is the node index stored in slot i
+	private double[] distance;		//distance[i] is the key of slot i
+	private int[] position;			//position[index] is the slot of index, -1 if index is not in the heap
+	private SearchMetrics metrics = SearchMetrics.NONE;
+
+	/**
+	 * constructor, create an empty heap
+	 * @param arity number of children of every slot, e.g. 2, 4 or 8
+	 * @param capacity the node indices must be in 0..capacity-1
+	 */
+	public DaryHeap(int arity, int capacity)
+	{
+		if(arity < 2)
+		{
+			System.out.println("Error! Arity of a d-ary heap must be at least 2.");
+			System.exit(1);
+		}
+		this.arity = arity;
+		size = 0;
+		heap = new int[capacity];
+		distance = new double[capacity];
+		position = new int[capacity];
+		Arrays.fill(position, -1);
+	}
+
+	/**
+	 * set the recorder of the heap operations
+	 * @param metrics the recorder, SearchMetrics.NONE to stop recording
+	 */
+	public void setMetrics(SearchMetrics metrics)
+	{
+		this.metrics = metrics;
+	}
+
+	public int getArity()
+	{
+		return arity;
+	}
+
+	/**
+	 * get the size of the heap
+	 * @return the number of nodes in the heap
+	 */
+	public int getSize()
+	{
+		return size;
+	}
+
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	/**
+	 * test whether the node with certain index is in the heap
+	 * @param index the index value of the node
+	 * @return true if the node is in the heap
+	 */
+	public boolean contains(int index)
+	{
+		return position[index] >= 0;
+	}
+
+	/**
+	 * get the index of the node with the minimum distance
+	 * @return the index, -1 if the heap is empty
+	 */
+	public int getMin()
+	{
+		return size == 0 ? -1 : heap[0];
+	}
+
+	/**
+	 * get the minimum distance in the heap
+	 * @return the distance, infinity if the heap is empty
+	 */
+	public double getMinDistance()
+	{
+		return size == 0 ? Double.POSITIVE_INFINITY : distance[0];
+	}
+
+	/**
+	 * insert a new node into the heap
+	 * @param index the new node's index, must not be in the heap
+	 * @param d the new node's value of distance
+	 */
+	public void insert(int index, double d)
+	{
+		siftUp(size++, index, d);
+		metrics.inserted();
+	}
+
+	/**
+	 * remove the node with the minimum distance from the heap
+	 * @return the index of the removed node
+	 */
+	public int extractMin()
+	{
+		int min = heap[0];
+		position[min] = -1;
+		size--;
+		if(size > 0)
+			siftDown(0, heap[size], distance[size]);	//move the last slot to the top
+		metrics.extracted();
+		return min;
+	}
+
+	/**
+	 * decrease the distance value of the node with certain index to d
+	 * @param index the index value of a node in the heap
+	 * @param d the new value of distance
+	 */
+	public void decreaseKey(int index, double d)
+	{
+		int i = position[index];
+		if(d > distance[i])
+		{
+			System.out.println("Error! New key is greater than current key.");
+			System.exit(1);
+		}
+		siftUp(i, index, d);
+		metrics.decreased();
+	}
+
+	/**
+	 * remove all nodes from the heap
+	 */
+	public void clear()
+	{
+		for(int i=0; i<size; i++)
+			position[heap[i]] = -1;
+		size = 0;
+	}
+
+	/**
+	 * move a hole at slot i towards the top until (index, d) fits in it
+	 * @param i the slot of the hole
+	 * @param index the node to be placed
+	 * @param d the node's value of distance
+	 */
+	private void siftUp(int i, int index, double d)
+	{
+		int parent;
+		while(i > 0)
+		{
+			parent = (i - 1) / arity;
+			if(distance[parent] <= d)
+				break;
+			heap[i] = heap[parent];
+			distance[i] = distance[parent];
+			position[heap[i]] = i;
+			i = parent;
+		}
+		heap[i] = index;
+		distance[i] = d;
+		position[index] = i;
+	}
+
+	/**
+	 * move a hole at slot i towards the bottom until (index, d) fits in it
+	 * @param i the slot of the hole
+	 * @param index the node to be placed
+	 * @param d the node's value of distance
+	 */
+	private void siftDown(int i, int index, double d)
+	{
+		int first, last, min;
+		while((first = i * arity + 1) < size)
+		{
+			last = Math.min(first + arity, size);
+			min = first;
+			for(int c=first+1; c<last; c++)		//the children of a slot are adjacent in the arrays
+				if(distance[c] < distance[min])
+					min = c;
+			if(distance[min] >= d)
+				break;
+			heap[i] = heap[min];
+			distance[i] = distance[min];
+			position[heap[i]] = i;
+			i = min;
+		}
+		heap[i] = index;
+		distance[i] = d;
+		position[index] = i;
+	}
+}
@@ -0,0 +1,356 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class computes the shortest paths from one source with the delta-stepping
+ * algorithm, relaxing many nodes at once on a fork-join pool.
+ * The nodes are kept in buckets of width delta by distance. The buckets are processed
+ * in increasing order: the light edges (weight at most delta) of the nodes in the
+ * current bucket are relaxed in parallel until the bucket stays empty, then the heavy
+ * edges of every node removed from it are relaxed in parallel once. The indices of the
+ * buckets holding nodes are kept in a small heap, so the search jumps from one
+ * non-empty bucket to the next however far apart their distances are.
+ * Distances are non-negative, so their IEEE bit patterns order like the distances,
+ * and a relaxation lowers a distance with a compare-and-set on the bits.
+ * The adjacency lists are reordered once so the light edges of every node come first.
+ * An instance must not be used by two queries at the same time
+ * @author Min Chen
+ *
+ */
+public class DeltaStepping
+{
+	private static final int GRAIN = 256;		//a task with at most GRAIN nodes is not split further
+	private static final long INFINITY_BITS = Double.doubleToLongBits(ssp.INFINITY);
+	private static final int MAX_BUCKETS = 1 << 16;	//buckets further apart share a slot, whatever delta is
+
+	private int n;
+	private double delta;
+	private int[] offsets;
+	private int[] lightEnd;				//edges offsets[u]..lightEnd[u]-1 of u are light, the rest up to offsets[u+1]-1 heavy
+	private int[] targets;
+	private double[] weights;
+	private int bucketCount;			//buckets used circularly, more than the largest weight / delta unless capped
+	private ForkJoinPool pool;
+
+	private AtomicLongArray dist;		//bits of the distances of the current query
+	private AtomicIntegerArray stamp;	//phase in which a node was last reported as improved
+	private int phase;
+	private int[] improved;				//nodes improved by the current phase, each at most once
+	private AtomicInteger improvedCount = new AtomicInteger();
+	private int[][] bucket;				//bucket[b % bucketCount] holds the nodes that entered bucket b, some stale
+	private int[] bucketSize;
+	private long[] slotBucket;			//bucket whose index was last put into the heap for a slot
+	private long[] heap;				//min-heap of the indices of the buckets that received nodes, some repeated
+	private int heapSize;
+	private long[] removed;				//bucket that last removed a node, to relax its heavy edges once per bucket
+	private int[] frontier;
+	private int[] requests;				//nodes removed from the current bucket
+
+	/**
+	 * constructor, split the edges of the graph into light and heavy ones
+	 * @param g is the graph
+	 * @param delta is the bucket width, the largest weight of a light edge
+	 * @param threads is the number of threads
+	 */
+	public DeltaStepping(CsrGraph g, double delta, int threads)
+	{
+		if(!(delta > 0))
+		{
+			System.out.println("Error! Delta must be positive.");
+			System.exit(1);
+		}
+		if(threads < 1)
+		{
+			System.out.println("Error! The number of threads must be at least 1.");
+			System.exit(1);
+		}
+		this.delta = delta;
+		n = g.getNumberOfNodes();
+		offsets = g.getOffsets();
+		lightEnd = new int[n];
+		targets = new int[g.getNumberOfEdges()];
+		weights = new double[g.getNumberOfEdges()];
+		int[] t = g.getTargets();
+		double[] w = g.getWeights();
+		double maxWeight = 0;
+		int light, heavy;
+		for(int u=0; u<n; u++)
+		{
+			light = offsets[u];
+			for(int e=offsets[u]; e<offsets[u + 1]; e++)
+				if(w[e] <= delta)
+					light ++;
+			lightEnd[u] = light;
+			light = offsets[u];
+			heavy = lightEnd[u];
+			for(int e=offsets[u]; e<offsets[u + 1]; e++)
+			{
+				int slot = w[e] <= delta ? light++ : heavy++;
+				targets[slot] = t[e];
+				weights[slot] = w[e];
+				maxWeight = Math.max(maxWeight, w[e]);
+			}
+		}
+		//a relaxation reaches at most maxWeight/delta buckets ahead, one more for the rounding of the bucket index,
+		//with a smaller delta the buckets wrap around and a slot also holds nodes of later buckets
+		bucketCount = (int) Math.min(MAX_BUCKETS, Math.floor(maxWeight / delta) + 3);
+		pool = new ForkJoinPool(threads);
+
+		dist = new AtomicLongArray(n);
+		stamp = new AtomicIntegerArray(n);
+		improved = new int[n];
+		bucket = new int[bucketCount][];
+		bucketSize = new int[bucketCount];
+		slotBucket = new long[bucketCount];
+		heap = new long[16];
+		removed = new long[n];
+		frontier = new int[16];
+		requests = new int[16];
+	}
+
+	/**
+	 * choose delta as the largest weight divided by the average degree,
+	 * so a bucket holds about as many nodes as one relaxation reaches
+	 * @param g is the graph
+	 * @return delta
+	 */
+	public static double defaultDelta(CsrGraph g)
+	{
+		double maxWeight = 0;
+		for(double w : g.getWeights())
+			maxWeight = Math.max(maxWeight, w);
+		double degree = Math.max(1.0, (double) g.getNumberOfEdges() / Math.max(1, g.getNumberOfNodes()));
+		return maxWeight > 0 ? maxWeight / degree : 1;
+	}
+
+	public double getDelta()
+	{
+		return delta;
+	}
+
+	/**
+	 * stop the threads of the pool
+	 */
+	public void shutdown()
+	{
+		pool.shutdown();
+	}
+
+	/**
+	 * compute the shortest distances from a source to all nodes
+	 * @param source is the index of the source
+	 * @return the distances, unreachable nodes get infinity
+	 */
+	public double[] shortestPaths(int source)
+	{
+		for(int i=0; i<n; i++)
+			dist.set(i, INFINITY_BITS);
+		Arrays.fill(removed, -1);
+		dist.set(source, Double.doubleToLongBits(0));
+		Arrays.fill(slotBucket, -1);
+		heapSize = 0;
+		add(0, source);
+
+		long last = -1;
+		while(heapSize > 0)
+		{
+			long b = pop();
+			if(b <= last)						//the bucket was put into the heap more than once
+				continue;
+			last = b;
+			int slot = (int) (b % bucketCount);
+			int size, removedCount = 0;
+			while(true)							//the heavy edges may refill the bucket through rounding
+			{
+				size = 0;						//take the nodes still belonging to bucket b, each once
+				int kept = 0;					//and keep those of later buckets sharing the slot
+				phase ++;
+				for(int i=0; i<bucketSize[slot]; i++)
+				{
+					int v = bucket[slot][i];
+					long c = bucketOf(v);
+					if(c > b && c % bucketCount == slot)
+						bucket[slot][kept++] = v;
+					else if(c == b && stamp.get(v) != phase)
+					{
+						stamp.set(v, phase);
+						if(size == frontier.length)
+							frontier = Arrays.copyOf(frontier, size * 2);
+						frontier[size++] = v;
+						if(removed[v] != b)
+						{
+							removed[v] = b;
+							if(removedCount == requests.length)
+								requests = Arrays.copyOf(requests, removedCount * 2);
+							requests[removedCount++] = v;
+						}
+					}
+				}
+				bucketSize[slot] = kept;
+				if(size > 0)
+					relax(frontier, size, true);
+				else if(removedCount > 0)		//the bucket stays empty, relax the heavy edges of its nodes
+				{
+					relax(requests, removedCount, false);
+					removedCount = 0;
+				}
+				else
+					break;
+			}
+		}
+
+		double[] result = new double[n];
+		for(int i=0; i<n; i++)
+			result[i] = Double.longBitsToDouble(dist.get(i));
+		return result;
+	}
+
+	/**
+	 * relax the light or heavy edges of some nodes in parallel,
+	 * and put every improved node into its bucket
+	 * @param nodes the nodes
+	 * @param size the number of nodes
+	 * @param light true for the light edges, false for the heavy ones
+	 */
+	private void relax(int[] nodes, int size, boolean light)
+	{
+		phase ++;
+		improvedCount.set(0);
+		if(size <= GRAIN)
+			new RelaxTask(nodes, 0, size, light).compute();
+		else
+			pool.invoke(new RelaxTask(nodes, 0, size, light));
+		int count = improvedCount.get();
+		for(int i=0; i<count; i++)
+			add(bucketOf(improved[i]), improved[i]);
+	}
+
+	/**
+	 * get the bucket of a node by its current distance
+	 */
+	private long bucketOf(int v)
+	{
+		return (long) Math.floor(Double.longBitsToDouble(dist.get(v)) / delta);
+	}
+
+	/**
+	 * append a node to a bucket, and put the index of the bucket into the heap
+	 * unless it was the last one put there for the slot
+	 */
+	private void add(long b, int v)
+	{
+		int slot = (int) (b % bucketCount);
+		if(slotBucket[slot] != b)
+		{
+			slotBucket[slot] = b;
+			push(b);
+		}
+		if(bucket[slot] == null)
+			bucket[slot] = new int[16];
+		else if(bucketSize[slot] == bucket[slot].length)
+			bucket[slot] = Arrays.copyOf(bucket[slot], bucketSize[slot] * 2);
+		bucket[slot][bucketSize[slot]++] = v;
+	}
+
+	/**
+	 * put a bucket index into the heap
+	 */
+	private void push(long b)
+	{
+		if(heapSize == heap.length)
+			heap = Arrays.copyOf(heap, heapSize * 2);
+		int i = heapSize++;
+		while(i > 0 && heap[(i - 1) >> 1] > b)
+		{
+			heap[i] = heap[(i - 1) >> 1];
+			i = (i - 1) >> 1;
+		}
+		heap[i] = b;
+	}
+
+	/**
+	 * remove the smallest bucket index from the heap
+	 */
+	private long pop()
+	{
+		long top = heap[0];
+		long b = heap[--heapSize];
+		int i = 0, child;
+		while((child = 2 * i + 1) < heapSize)
+		{
+			if(child + 1 < heapSize && heap[child + 1] < heap[child])
+				child ++;
+			if(heap[child] >= b)
+				break;
+			heap[i] = heap[child];
+			i = child;
+		}
+		heap[i] = b;
+		return top;
+	}
+
+	/**
+	 * Task relaxing the edges of nodes[lo..hi-1]
+	 */
+	private class RelaxTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+		private int[] nodes;
+		private int lo, hi;
+		private boolean light;
+
+		RelaxTask(int[] nodes, int lo, int hi, boolean light)
+		{
+			this.nodes = nodes;
+			this.lo = lo;
+			this.hi = hi;
+			this.light = light;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if(hi - lo > GRAIN)
+			{
+				int mid = (lo + hi) >>> 1;
+				invokeAll(new RelaxTask(nodes, lo, mid, light), new RelaxTask(nodes, mid, hi, light));
+				return;
+			}
+
+			int[] local = new int[64];			//improved nodes, handed over in one reservation
+			int count = 0;
+			int u, v, s;
+			double du;
+			long bits, old;
+			for(int i=lo; i<hi; i++)
+			{
+				u = nodes[i];
+				du = Double.longBitsToDouble(dist.get(u));
+				for(int e=light ? offsets[u] : lightEnd[u]; e<(light ? lightEnd[u] : offsets[u + 1]); e++)
+				{
+					v = targets[e];
+					bits = Double.doubleToLongBits(du + weights[e]);
+					old = dist.get(v);
+					while(bits < old && !dist.compareAndSet(v, old, bits))	//lower the distance unless another thread did better
+						old = dist.get(v);
+					if(bits < old)
+					{
+						s = stamp.get(v);			//report v once per phase
+						if(s != phase && stamp.compareAndSet(v, s, phase))
+						{
+							if(count == local.length)
+								local = Arrays.copyOf(local, count * 2);
+							local[count++] = v;
+						}
+					}
+				}
+			}
+			int start = improvedCount.getAndAdd(count);
+			System.arraycopy(local, 0, improved, start, count);
+		}
+	}
+}
@@ -0,0 +1,608 @@
+import java.util.Arrays;
+
+/**
+ * This class computes the shortest paths from one source with one of the schemes.
+ * An instance owns the heap and the scratch state of its scheme and reuses them
+ * for every source, so it must not be shared between threads.
+ * A point-to-point query stops as soon as the target leaves the heap, and only
+ * the nodes reached by the search are reset afterwards.
+ * The bucket queue scheme needs integer weights in 0..ssp.BUCKET_RANGE,
+ * on other graphs it falls back to the d-ary heap scheme. The Floyd-Warshall
+ * scheme only computes all pairs at once, a single source uses the d-ary heap scheme
+ * @author Min Chen
+ *
+ */
+public class Dijkstra
+{
+	private CsrGraph g;
+	private Scheme scheme;
+	private int n;
+	private int[] offsets;
+	private int[] targets;
+	private double[] weights;
+
+	private double[] open;				//simple scheme, distance of every node not yet settled, infinity once settled
+	private FibonacciHeap fheap;
+	private BinomialHeap bheap;
+	private DaryHeap dheap;
+	private BucketQueue buckets;
+	private LazyBinaryHeap lazy;
+	private PairingHeap pheap;
+
+	private double[] scratch;			//distances of a point-to-point query, infinity between queries
+	private int[] parents;				//predecessors of a search whose caller does not keep them
+	private int[] touched;				//nodes whose distance became finite during the current search
+	private int touchedCount;
+	private double pathDistance;		//length of the path found by the last path() query
+	private int peak;					//most entries held by the heap during a search
+	private SearchMetrics metrics = SearchMetrics.NONE;
+
+	/**
+	 * constructor, the d-ary heap scheme uses the default arity
+	 * @param g is the graph
+	 * @param scheme is the scheme used to compute the shortest paths
+	 */
+	public Dijkstra(CsrGraph g, Scheme scheme)
+	{
+		this(g, scheme, ssp.DHEAP_ARITY);
+	}
+
+	/**
+	 * constructor
+	 * @param g is the graph
+	 * @param scheme is the scheme used to compute the shortest paths
+	 * @param arity is the number of children of every slot in the d-ary heap scheme
+	 */
+	public Dijkstra(CsrGraph g, Scheme scheme, int arity)
+	{
+		this.g = g;
+		this.scheme = scheme;
+		n = g.getNumberOfNodes();
+		offsets = g.getOffsets();
+		targets = g.getTargets();
+		weights = g.getWeights();
+
+		switch(scheme)
+		{
+			case SIMPLE:
+				open = new double[n];
+				Arrays.fill(open, ssp.INFINITY);
+				break;
+			case FHEAP:		fheap = new FibonacciHeap(n); break;
+			case BHEAP:		bheap = new BinomialHeap(n); break;
+			case DHEAP:		dheap = new DaryHeap(arity, n); break;
+			case BUCKET:
+				int maxWeight = BucketQueue.maxWeight(g, ssp.BUCKET_RANGE);
+				if(maxWeight >= 0)
+					buckets = new BucketQueue(maxWeight, n);
+				else
+					dheap = new DaryHeap(arity, n);
+				break;
+			case LAZY:		lazy = new LazyBinaryHeap(n); break;
+			case PAIRING:	pheap = new PairingHeap(n); break;
+			case FLOYD:		dheap = new DaryHeap(arity, n); break;
+		}
+		scratch = new double[n];
+		Arrays.fill(scratch, ssp.INFINITY);
+		touched = new int[n];
+		parents = new int[n];
+	}
+
+	public CsrGraph getGraph()
+	{
+		return g;
+	}
+
+	public Scheme getScheme()
+	{
+		return scheme;
+	}
+
+	/**
+	 * get the scheme that actually runs, which differs from getScheme()
+	 * when the bucket queue or the Floyd-Warshall scheme falls back to the d-ary heap scheme
+	 * @return the scheme
+	 */
+	public Scheme getEffectiveScheme()
+	{
+		return dheap != null ? Scheme.DHEAP : scheme;
+	}
+
+	/**
+	 * get the largest number of entries the heap held during any search so far,
+	 * n for the simple scheme, whose open row of n distances is scanned whole in every step
+	 * @return the peak heap size
+	 */
+	public int getPeakHeapSize()
+	{
+		switch(getEffectiveScheme())
+		{
+			case SIMPLE:	return n;
+			case LAZY:		return lazy.getPeakSize();
+			default:		return peak;
+		}
+	}
+
+	/**
+	 * set the recorder of the operations of the searches and of the heap
+	 * @param metrics the recorder, SearchMetrics.NONE to stop recording
+	 */
+	public void setMetrics(SearchMetrics metrics)
+	{
+		this.metrics = metrics;
+		switch(scheme)
+		{
+			case SIMPLE:	break;
+			case FHEAP:		fheap.setMetrics(metrics); break;
+			case BHEAP:		bheap.setMetrics(metrics); break;
+			case DHEAP:		dheap.setMetrics(metrics); break;
+			case BUCKET:
+				if(buckets != null)
+					buckets.setMetrics(metrics);
+				else
+					dheap.setMetrics(metrics);
+				break;
+			case LAZY:		lazy.setMetrics(metrics); break;
+			case PAIRING:	pheap.setMetrics(metrics); break;
+			case FLOYD:		dheap.setMetrics(metrics); break;
+		}
+	}
+
+	/**
+	 * compute the shortest distances from a source to all nodes
+	 * @param source is the index of the source
+	 * @return the distances, unreachable nodes get infinity
+	 */
+	public double[] shortestPaths(int source)
+	{
+		double[] dist = new double[n];
+		shortestPaths(source, dist);
+		return dist;
+	}
+
+	/**
+	 * compute the shortest distances from a source to all nodes
+	 * @param source is the index of the source
+	 * @param dist receives the distances, unreachable nodes get infinity
+	 */
+	public void shortestPaths(int source, double[] dist)
+	{
+		Arrays.fill(dist, 0, n, ssp.INFINITY);
+		search(source, -1, dist, parents);
+	}
+
+	/**
+	 * compute the shortest distances from a source to all nodes, and the
+	 * predecessor of every node on its shortest path
+	 * @param source is the index of the source
+	 * @param dist receives the distances, unreachable nodes get infinity
+	 * @param pred receives the predecessors, -1 for the source and unreachable nodes
+	 */
+	public void shortestPaths(int source, double[] dist, int[] pred)
+	{
+		Arrays.fill(dist, 0, n, ssp.INFINITY);
+		Arrays.fill(pred, 0, n, -1);
+		search(source, -1, dist, pred);
+	}
+
+	/**
+	 * compute the shortest distance from a source to a target,
+	 * the search stops as soon as the distance of the target is final
+	 * @param source is the index of the source
+	 * @param target is the index of the target
+	 * @return the distance, infinity if the target is unreachable
+	 */
+	public double distance(int source, int target)
+	{
+		search(source, target, scratch, parents);
+		double d = scratch[target];
+		for(int i=0; i<touchedCount; i++)		//reset only the reached nodes for the next query
+			scratch[touched[i]] = ssp.INFINITY;
+		return d;
+	}
+
+	/**
+	 * compute a shortest path from a source to a target, its length is
+	 * given by getPathDistance() afterwards,
+	 * the search stops as soon as the distance of the target is final
+	 * @param source is the index of the source
+	 * @param target is the index of the target
+	 * @return the nodes of the path from the source to the target, empty if the target is unreachable
+	 */
+	public int[] path(int source, int target)
+	{
+		search(source, target, scratch, parents);
+		pathDistance = scratch[target];
+		int[] path = scratch[target] == ssp.INFINITY ? new int[0] : path(parents, source, target);
+		for(int i=0; i<touchedCount; i++)		//reset only the reached nodes for the next query
+			scratch[touched[i]] = ssp.INFINITY;
+		return path;
+	}
+
+	/**
+	 * get the length of the path found by the last path() query
+	 * @return the distance from its source to its target, infinity if the target is unreachable
+	 */
+	public double getPathDistance()
+	{
+		return pathDistance;
+	}
+
+	/**
+	 * follow the predecessors back from a target to the source
+	 * @param pred is the predecessor row of the source, -1 for the source and unreachable nodes
+	 * @param source is the index of the source
+	 * @param target is the index of the target
+	 * @return the nodes of the path from the source to the target, empty if the target is unreachable
+	 */
+	public static int[] path(int[] pred, int source, int target)
+	{
+		if(target != source && pred[target] < 0)
+			return new int[0];
+		int length = 0;
+		for(int v=target; v>=0; v=pred[v])
+			length ++;
+		int[] path = new int[length];
+		for(int v=target; v>=0; v=pred[v])
+			path[--length] = v;
+		return path;
+	}
+
+	/**
+	 * run the scheme from a source until the target is removed from the heap
+	 * @param source is the index of the source
+	 * @param target is the index of the target, -1 to compute all nodes
+	 * @param dist the distance row, infinity for every node
+	 * @param pred the predecessor row, the entry of a node is written when its distance is reduced
+	 */
+	private void search(int source, int target, double[] dist, int[] pred)
+	{
+		int settled = 0;
+		dist[source] = 0;
+		pred[source] = -1;
+		touched[0] = source;
+		touchedCount = 1;
+		metrics.begin(source);
+		switch(getEffectiveScheme())
+		{
+			case SIMPLE:	settled = simple(target, dist, pred); break;
+			case FHEAP:		settled = fheap(source, target, dist, pred); fheap.clear(); break;
+			case BHEAP:		settled = bheap(source, target, dist, pred); bheap.clear(); break;
+			case DHEAP:		settled = dheap(source, target, dist, pred); dheap.clear(); break;
+			case BUCKET:	settled = bucket(source, target, dist, pred); buckets.clear(); break;
+			case LAZY:		settled = lazy(source, target, dist, pred); lazy.clear(); break;
+			case PAIRING:	settled = pheap(source, target, dist, pred); pheap.clear(); break;
+		}
+		metrics.end(source, settled);
+	}
+
+	/**
+	 * simple scheme, every step scans the open row for the smallest distance.
+	 * A settled node keeps infinity in the row, so the scan is a plain minimum
+	 * over primitives without branches on the node state, and nothing is allocated
+	 * @param target is the index of the target, -1 to compute all nodes
+	 * @param dist the distance row, only the source is 0
+	 * @param pred receives the predecessor of every node whose distance is reduced
+	 * @return the number of settled nodes
+	 */
+	private int simple(int target, double[] dist, int[] pred)
+	{
+		int minIndex, settled = 0, improved;
+		double minDist;
+		open[touched[0]] = 0;
+
+		while(settled < n)		//find shortest path to n nodes
+		{
+			minDist = ssp.INFINITY;
+			for(int i=0; i<n; i++)	//find the shortest distance among all undetermined nodes
+				minDist = Math.min(minDist, open[i]);
+			if(minDist == ssp.INFINITY)	//the remaining nodes are unreachable from the source
+				break;
+			minIndex = 0;
+			while(open[minIndex] != minDist)
+				minIndex ++;
+			open[minIndex] = ssp.INFINITY;
+			settled ++;
+			if(minIndex == target)
+				break;
+
+			//the distance between the source and a neighbor of the new added node may be reduced
+			improved = 0;
+			for(int e=offsets[minIndex]; e<offsets[minIndex + 1]; e++)
+			{
+				if(dist[targets[e]] > dist[minIndex] + weights[e])
+				{
+					if(dist[targets[e]] == ssp.INFINITY)
+						touched[touchedCount++] = targets[e];
+					dist[targets[e]] = dist[minIndex] + weights[e];
+					pred[targets[e]] = minIndex;
+					open[targets[e]] = dist[targets[e]];
+					improved ++;
+				}
+			}
+			metrics.relaxed(offsets[minIndex + 1] - offsets[minIndex], improved);
+		}
+		for(int i=0; i<touchedCount; i++)	//nodes left open by an early stop
+			open[touched[i]] = ssp.INFINITY;
+		return settled;
+	}
+
+	/**
+	 * Fibonacci heap scheme
+	 * @param source is the index of the source
+	 * @param target is the index of the target, -1 to compute all nodes
+	 * @param dist the distance row, only the source is 0
+	 * @param pred receives the predecessor of every node whose distance is reduced
+	 * @return the number of settled nodes
+	 */
+	private int fheap(int source, int target, double[] dist, int[] pred)
+	{
+		int minIndex, v, settled = 0, improved, queued = 1;
+		fheap.insert(source, 0);
+
+		while(fheap.getMin() != null)
+		{
+			if(queued > peak)				//the heap is largest right before an extraction
+				peak = queued;
+			queued --;
+			minIndex = fheap.extractMin().getIndex();
+			settled ++;
+			if(minIndex == target)
+				return settled;
+			improved = 0;
+			//distance to the adjacent nodes of the recently removed node may be reduced
+			for(int e=offsets[minIndex]; e<offsets[minIndex + 1]; e++)
+			{
+				v = targets[e];
+				if(dist[v] > dist[minIndex] + weights[e])
+				{
+					dist[v] = dist[minIndex] + weights[e];
+					pred[v] = minIndex;
+					//if the node is already in the heap, decrease the distance through its handle,
+					//otherwise it has never been inserted, as the distance of a removed node cannot be reduced
+					if(fheap.contains(v))
+						fheap.decreaseKey(v, dist[v]);
+					else
+					{
+						touched[touchedCount++] = v;
+						fheap.insert(v, dist[v]);
+						queued ++;
+					}
+					improved ++;
+				}
+			}
+			metrics.relaxed(offsets[minIndex + 1] - offsets[minIndex], improved);
+		}
+		return settled;
+	}
+
+	/**
+	 * Binomial heap scheme
+	 * @param source is the index of the source
+	 * @param target is the index of the target, -1 to compute all nodes
+	 * @param dist the distance row, only the source is 0
+	 * @param pred receives the predecessor of every node whose distance is reduced
+	 * @return the number of settled nodes
+	 */
+	private int bheap(int source, int target, double[] dist, int[] pred)
+	{
+		int minIndex, v, settled = 0, improved, queued = 1;
+		bheap.insert(source, 0);
+
+		while(bheap.getRoot() != null)
+		{
+			if(queued > peak)				//the heap is largest right before an extraction
+				peak = queued;
+			queued --;
+			minIndex = bheap.extractMin().getIndex();
+			settled ++;
+			if(minIndex == target)
+				return settled;
+			improved = 0;
+			for(int e=offsets[minIndex]; e<offsets[minIndex + 1]; e++)
+			{
+				v = targets[e];
+				if(dist[v] > dist[minIndex] + weights[e])
+				{
+					dist[v] = dist[minIndex] + weights[e];
+					pred[v] = minIndex;
+					if(bheap.contains(v))
+						bheap.decreaseKey(v, dist[v]);
+					else
+					{
+						touched[touchedCount++] = v;
+						bheap.insert(v, dist[v]);
+						queued ++;
+					}
+					improved ++;
+				}
+			}
+			metrics.relaxed(offsets[minIndex + 1] - offsets[minIndex], improved);
+		}
+		return settled;
+	}
+
+	/**
+	 * d-ary heap scheme
+	 * @param source is the index of the source
+	 * @param target is the index of the target, -1 to compute all nodes
+	 * @param dist the distance row, only the source is 0
+	 * @param pred receives the predecessor of every node whose distance is reduced
+	 * @return the number of settled nodes
+	 */
+	private int dheap(int source, int target, double[] dist, int[] pred)
+	{
+		int minIndex, v, settled = 0, improved, queued = 1;
+		dheap.insert(source, 0);
+
+		while(!dheap.isEmpty())
+		{
+			if(queued > peak)				//the heap is largest right before an extraction
+				peak = queued;
+			queued --;
+			minIndex = dheap.extractMin();
+			settled ++;
+			if(minIndex == target)
+				return settled;
+			improved = 0;
+			for(int e=offsets[minIndex]; e<offsets[minIndex + 1]; e++)
+			{
+				v = targets[e];
+				if(dist[v] > dist[minIndex] + weights[e])
+				{
+					dist[v] = dist[minIndex] + weights[e];
+					pred[v] = minIndex;
+					//a node whose distance can still be reduced is either in the heap or never inserted
+					if(dheap.contains(v))
+						dheap.decreaseKey(v, dist[v]);
+					else
+					{
+						touched[touchedCount++] = v;
+						dheap.insert(v, dist[v]);
+						queued ++;
+					}
+					improved ++;
+				}
+			}
+			metrics.relaxed(offsets[minIndex + 1] - offsets[minIndex], improved);
+		}
+		return settled;
+	}
+
+	/**
+	 * bucket queue scheme
+	 * @param source is the index of the source
+	 * @param target is the index of the target, -1 to compute all nodes
+	 * @param dist the distance row, only the source is 0
+	 * @param pred receives the predecessor of every node whose distance is reduced
+	 * @return the number of settled nodes
+	 */
+	private int bucket(int source, int target, double[] dist, int[] pred)
+	{
+		int minIndex, v, settled = 0, improved, queued = 1;
+		buckets.insert(source, 0);
+
+		while(!buckets.isEmpty())
+		{
+			if(queued > peak)				//the heap is largest right before an extraction
+				peak = queued;
+			queued --;
+			minIndex = buckets.extractMin();
+			settled ++;
+			if(minIndex == target)
+				return settled;
+			improved = 0;
+			for(int e=offsets[minIndex]; e<offsets[minIndex + 1]; e++)
+			{
+				v = targets[e];
+				if(dist[v] > dist[minIndex] + weights[e])
+				{
+					dist[v] = dist[minIndex] + weights[e];
+					pred[v] = minIndex;
+					if(buckets.contains(v))
+						buckets.decreaseKey(v, dist[v]);
+					else
+					{
+						touched[touchedCount++] = v;
+						buckets.insert(v, dist[v]);
+						queued ++;
+					}
+					improved ++;
+				}
+			}
+			metrics.relaxed(offsets[minIndex + 1] - offsets[minIndex], improved);
+		}
+		return settled;
+	}
+
+	/**
+	 * lazy binary heap scheme, a reduced distance inserts the node again
+	 * instead of decreasing its key, and stale entries are skipped when extracted
+	 * @param source is the index of the source
+	 * @param target is the index of the target, -1 to compute all nodes
+	 * @param dist the distance row, only the source is 0
+	 * @param pred receives the predecessor of every node whose distance is reduced
+	 * @return the number of settled nodes
+	 */
+	private int lazy(int source, int target, double[] dist, int[] pred)
+	{
+		int minIndex, v, settled = 0, improved;
+		double minDist;
+		lazy.insert(source, 0);
+
+		while(!lazy.isEmpty())
+		{
+			minDist = lazy.getMinDistance();
+			minIndex = lazy.extractMin();
+			if(minDist > dist[minIndex])		//a stale entry, the node was settled with a smaller distance
+				continue;
+			settled ++;
+			if(minIndex == target)
+				return settled;
+			improved = 0;
+			for(int e=offsets[minIndex]; e<offsets[minIndex + 1]; e++)
+			{
+				v = targets[e];
+				if(dist[v] > dist[minIndex] + weights[e])
+				{
+					if(dist[v] == ssp.INFINITY)
+						touched[touchedCount++] = v;
+					dist[v] = dist[minIndex] + weights[e];
+					pred[v] = minIndex;
+					lazy.insert(v, dist[v]);
+					improved ++;
+				}
+			}
+			metrics.relaxed(offsets[minIndex + 1] - offsets[minIndex], improved);
+		}
+		return settled;
+	}
+
+	/**
+	 * pairing heap scheme
+	 * @param source is the index of the source
+	 * @param target is the index of the target, -1 to compute all nodes
+	 * @param dist the distance row, only the source is 0
+	 * @param pred receives the predecessor of every node whose distance is reduced
+	 * @return the number of settled nodes
+	 */
+	private int pheap(int source, int target, double[] dist, int[] pred)
+	{
+		int minIndex, v, settled = 0, improved, queued = 1;
+		PairingHeap.Pnode x;
+		pheap.insert(source, 0);
+
+		while(pheap.getMin() != null)
+		{
+			if(queued > peak)				//the heap is largest right before an extraction
+				peak = queued;
+			queued --;
+			minIndex = pheap.extractMin().getIndex();
+			settled ++;
+			if(minIndex == target)
+				return settled;
+			improved = 0;
+			for(int e=offsets[minIndex]; e<offsets[minIndex + 1]; e++)
+			{
+				v = targets[e];
+				if(dist[v] > dist[minIndex] + weights[e])
+				{
+					dist[v] = dist[minIndex] + weights[e];
+					pred[v] = minIndex;
+					x = pheap.getNode(v);
+					if(x != null)
+						pheap.decreaseKey(x, dist[v]);
+					else
+					{
+						touched[touchedCount++] = v;
+						pheap.insert(v, dist[v]);
+						queued ++;
+					}
+					improved ++;
+				}
+			}
+			metrics.relaxed(offsets[minIndex + 1] - offsets[minIndex], improved);
+		}
+		return settled;
+	}
+}
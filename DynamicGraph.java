@@ -0,0 +1,311 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class implements a directed graph whose edges can be added, removed and
+ * reweighted. Every node keeps growable arrays of its outgoing and of its incoming
+ * edges, so a change costs time proportional to the degrees of its two ends, and
+ * the incoming edges let a shortest path be repaired from the predecessors of a node.
+ * There is at most one edge from a node to another, parallel edges of the graph it
+ * is built from are reduced to the shortest one. Every change increases the version
+ * and is reported to the listeners, which may repair the results they keep
+ * @author Min Chen
+ *
+ */
+public class DynamicGraph
+{
+	private int n;
+	private int m;
+	private long version;
+	private int[] outDegree;
+	private int[][] outTargets;			//outTargets[u][0..outDegree[u]-1] are the ending points of the edges of u
+	private double[][] outWeights;
+	private int[] inDegree;
+	private int[][] inSources;			//inSources[v][0..inDegree[v]-1] are the starting points of the edges to v
+	private double[][] inWeights;
+	private List<EdgeListener> listeners = new ArrayList<EdgeListener>();
+
+	/**
+	 * constructor, copy the edges of a graph
+	 * @param g is the graph
+	 */
+	public DynamicGraph(CsrGraph g)
+	{
+		n = g.getNumberOfNodes();
+		outDegree = new int[n];
+		outTargets = new int[n][];
+		outWeights = new double[n][];
+		inDegree = new int[n];
+		inSources = new int[n][];
+		inWeights = new double[n][];
+		int[] offsets = g.getOffsets();
+		int[] targets = g.getTargets();
+		double[] weights = g.getWeights();
+		for(int u=0; u<n; u++)
+		{
+			outTargets[u] = new int[Math.max(offsets[u + 1] - offsets[u], 2)];
+			outWeights[u] = new double[outTargets[u].length];
+		}
+		for(int e=0; e<targets.length; e++)
+			inDegree[targets[e]] ++;
+		for(int v=0; v<n; v++)
+		{
+			inSources[v] = new int[Math.max(inDegree[v], 2)];
+			inWeights[v] = new double[inSources[v].length];
+			inDegree[v] = 0;
+		}
+		int i;
+		for(int u=0; u<n; u++)
+			for(int e=offsets[u]; e<offsets[u + 1]; e++)
+			{
+				i = find(outTargets[u], outDegree[u], targets[e]);
+				if(i < 0)
+					append(u, targets[e], weights[e]);
+				else if(weights[e] < outWeights[u][i])		//keep the shortest of parallel edges
+				{
+					outWeights[u][i] = weights[e];
+					inWeights[targets[e]][find(inSources[targets[e]], inDegree[targets[e]], u)] = weights[e];
+				}
+			}
+	}
+
+	public int getNumberOfNodes()
+	{
+		return n;
+	}
+
+	public int getNumberOfEdges()
+	{
+		return m;
+	}
+
+	/**
+	 * get the version of the graph, which increases with every change
+	 * @return the version
+	 */
+	public long getVersion()
+	{
+		return version;
+	}
+
+	public int getOutDegree(int u)
+	{
+		return outDegree[u];
+	}
+
+	/**
+	 * get the ending point of the i-th outgoing edge of u
+	 */
+	public int getOutTarget(int u, int i)
+	{
+		return outTargets[u][i];
+	}
+
+	/**
+	 * get the weight of the i-th outgoing edge of u
+	 */
+	public double getOutWeight(int u, int i)
+	{
+		return outWeights[u][i];
+	}
+
+	public int getInDegree(int v)
+	{
+		return inDegree[v];
+	}
+
+	/**
+	 * get the starting point of the i-th incoming edge of v
+	 */
+	public int getInSource(int v, int i)
+	{
+		return inSources[v][i];
+	}
+
+	/**
+	 * get the weight of the i-th incoming edge of v
+	 */
+	public double getInWeight(int v, int i)
+	{
+		return inWeights[v][i];
+	}
+
+	/**
+	 * get the weight of the edge from u to v
+	 * @param u is the starting point
+	 * @param v is the ending point
+	 * @return the weight, infinity if there is no such edge
+	 */
+	public double getWeight(int u, int v)
+	{
+		check(u, v);
+		int i = find(outTargets[u], outDegree[u], v);
+		return i < 0 ? ssp.INFINITY : outWeights[u][i];
+	}
+
+	/**
+	 * register a listener of the edge changes
+	 * @param listener is the listener
+	 */
+	public void addListener(EdgeListener listener)
+	{
+		listeners.add(listener);
+	}
+
+	/**
+	 * stop reporting the edge changes to a listener
+	 * @param listener is the listener
+	 */
+	public void removeListener(EdgeListener listener)
+	{
+		listeners.remove(listener);
+	}
+
+	/**
+	 * change the weight of an existing edge
+	 * @param u is the starting point
+	 * @param v is the ending point
+	 * @param w is the new weight
+	 */
+	public void updateEdgeWeight(int u, int v, double w)
+	{
+		check(u, v);
+		checkWeight(w);
+		int i = find(outTargets[u], outDegree[u], v);
+		if(i < 0)
+		{
+			System.out.println("Error! There is no edge from " + u + " to " + v + ".");
+			System.exit(1);
+		}
+		double old = outWeights[u][i];
+		outWeights[u][i] = w;
+		inWeights[v][find(inSources[v], inDegree[v], u)] = w;
+		changed(u, v, old, w);
+	}
+
+	/**
+	 * add an edge between two nodes that are not connected yet
+	 * @param u is the starting point
+	 * @param v is the ending point
+	 * @param w is the weight
+	 */
+	public void addEdge(int u, int v, double w)
+	{
+		check(u, v);
+		checkWeight(w);
+		if(find(outTargets[u], outDegree[u], v) >= 0)
+		{
+			System.out.println("Error! There is already an edge from " + u + " to " + v + ".");
+			System.exit(1);
+		}
+		append(u, v, w);
+		changed(u, v, ssp.INFINITY, w);
+	}
+
+	/**
+	 * remove an existing edge
+	 * @param u is the starting point
+	 * @param v is the ending point
+	 */
+	public void removeEdge(int u, int v)
+	{
+		check(u, v);
+		int i = find(outTargets[u], outDegree[u], v);
+		if(i < 0)
+		{
+			System.out.println("Error! There is no edge from " + u + " to " + v + ".");
+			System.exit(1);
+		}
+		double old = outWeights[u][i];
+		int last = --outDegree[u];			//move the last edge into the hole
+		outTargets[u][i] = outTargets[u][last];
+		outWeights[u][i] = outWeights[u][last];
+		i = find(inSources[v], inDegree[v], u);
+		last = --inDegree[v];
+		inSources[v][i] = inSources[v][last];
+		inWeights[v][i] = inWeights[v][last];
+		m --;
+		changed(u, v, old, ssp.INFINITY);
+	}
+
+	/**
+	 * build a compressed sparse row graph of the current edges, for the schemes
+	 * @return the graph
+	 */
+	public CsrGraph toCsrGraph()
+	{
+		int[] offsets = new int[n + 1];
+		int[] targets = new int[m];
+		double[] weights = new double[m];
+		for(int u=0; u<n; u++)
+		{
+			System.arraycopy(outTargets[u], 0, targets, offsets[u], outDegree[u]);
+			System.arraycopy(outWeights[u], 0, weights, offsets[u], outDegree[u]);
+			offsets[u + 1] = offsets[u] + outDegree[u];
+		}
+		return new CsrGraph(offsets, targets, weights);
+	}
+
+	/**
+	 * add the edge (u,v) to the outgoing edges of u and the incoming edges of v
+	 */
+	private void append(int u, int v, double w)
+	{
+		if(outDegree[u] == outTargets[u].length)
+		{
+			outTargets[u] = Arrays.copyOf(outTargets[u], outDegree[u] * 2);
+			outWeights[u] = Arrays.copyOf(outWeights[u], outDegree[u] * 2);
+		}
+		outTargets[u][outDegree[u]] = v;
+		outWeights[u][outDegree[u]++] = w;
+		if(inDegree[v] == inSources[v].length)
+		{
+			inSources[v] = Arrays.copyOf(inSources[v], inDegree[v] * 2);
+			inWeights[v] = Arrays.copyOf(inWeights[v], inDegree[v] * 2);
+		}
+		inSources[v][inDegree[v]] = u;
+		inWeights[v][inDegree[v]++] = w;
+		m ++;
+	}
+
+	/**
+	 * increase the version and report a change to the listeners
+	 */
+	private void changed(int u, int v, double oldWeight, double newWeight)
+	{
+		version ++;
+		for(EdgeListener listener : listeners)
+			listener.edgeChanged(u, v, oldWeight, newWeight);
+	}
+
+	/**
+	 * find a node in the first size entries of an array
+	 * @return its position, -1 if it is not there
+	 */
+	private static int find(int[] nodes, int size, int node)
+	{
+		for(int i=0; i<size; i++)
+			if(nodes[i] == node)
+				return i;
+		return -1;
+	}
+
+	private void check(int u, int v)
+	{
+		if(u < 0 || u >= n || v < 0 || v >= n)
+		{
+			System.out.println("Error! Node index out of range 0.." + (n - 1) + ".");
+			System.exit(1);
+		}
+	}
+
+	private void checkWeight(double w)
+	{
+		if(!(w >= 0 && w < ssp.INFINITY))
+		{
+			System.out.println("Error! Edge weight must be finite and non-negative.");
+			System.exit(1);
+		}
+	}
+}
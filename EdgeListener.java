@@ -0,0 +1,18 @@
+/**
+ * This interface receives the edge changes of a dynamic graph, after the
+ * graph has applied them. A missing edge has the weight infinity, so an added
+ * edge goes from infinity to its weight and a removed one back to infinity
+ * @author Min Chen
+ *
+ */
+public interface EdgeListener
+{
+	/**
+	 * called once for every changed edge
+	 * @param u is the starting point of the edge
+	 * @param v is the ending point of the edge
+	 * @param oldWeight is the weight before the change
+	 * @param newWeight is the weight after the change
+	 */
+	void edgeChanged(int u, int v, double oldWeight, double newWeight);
+}
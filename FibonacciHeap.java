@@ -1,3 +1,6 @@
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
 /**
  * This class implements the Fibonacci heap
  * @author Min Chen
@@ -7,6 +10,8 @@ public class FibonacciHeap
 {
   private Fnode min;
 	private int size;
+	private Fnode[] handles;		//handles[i] is the heap node holding vertex i, null if i is not in the heap
+	private SearchMetrics metrics = SearchMetrics.NONE;
 	
 	/**
 	 * Inner class for nodes of Fibonacci heap
@@ -123,9 +128,20 @@ public class FibonacciHeap
  	 * constructor, create an empty Fibonacci heap
  	 */
 	public FibonacciHeap()
+	{
+		this(16);
+	}
+	
+	/**
+	 * constructor, create an empty Fibonacci heap whose handle table
+	 * can hold vertices 0..capacity-1 without growing
+	 * @param capacity the expected number of vertices
+	 */
+	public FibonacciHeap(int capacity)
 	{
 		min = null;
 		size = 0;
+		handles = new Fnode[Math.max(capacity, 1)];
 	}
 	
 	/**
@@ -140,6 +156,8 @@ public class FibonacciHeap
 		x.setLeftSibling(x);
 		x.setRightSibling(x);
 		size = 1;
+		handles = new Fnode[x.getIndex() + 1];
+		handles[x.getIndex()] = x;
 	}
 	
 
@@ -148,6 +166,15 @@ public class FibonacciHeap
 		return min;
 	}
 	
+	/**
+	 * set the recorder of the heap operations
+	 * @param metrics the recorder, SearchMetrics.NONE to stop recording
+	 */
+	public void setMetrics(SearchMetrics metrics)
+	{
+		this.metrics = metrics;
+	}
+	
 	/**
 	 * get the size of the heap
 	 * @return the number of nodes in the heap
@@ -188,17 +215,29 @@ public class FibonacciHeap
 			
 		x.setChild(y);
 		x.increaseDgree();
+		metrics.linked();
 			
 	}
 	
 	/**
-	 * Union with another Fibonacci heap h
+	 * Union with another Fibonacci heap h, which is empty afterwards,
+	 * the handles of its nodes move to the handle table of this heap
 	 * @param h represents another Fibonacci heap
 	 */
 	public void union(FibonacciHeap h)
 	{
 		Fnode min2 = h.getMin();
 		size += h.getSize();
+		for(Fnode x : h.handles)
+			if(x != null)
+			{
+				if(x.getIndex() >= handles.length)
+					handles = Arrays.copyOf(handles, Math.max(x.getIndex() + 1, handles.length * 2));
+				handles[x.getIndex()] = x;
+			}
+		Arrays.fill(h.handles, null);
+		h.min = null;
+		h.size = 0;
 		
 		//if(min2 == null) do nothing
 		
@@ -222,15 +261,56 @@ public class FibonacciHeap
 	}
 	
 	/**
-	 * insert a new node to the heap
+	 * insert a new node to the heap, and record it in the handle table
 	 * @param index represents the index of the new node
 	 * @param dist represents the value of distance of the new node
+	 * @return the inserted node
 	 */
-	public void insert(int index, double dist)
+	public Fnode insert(int index, double dist)
 	{
 		Fnode fnode = new Fnode(index, dist);
-		FibonacciHeap h = new FibonacciHeap(fnode);
-		this.union(h);
+		if(min == null)
+		{
+			fnode.setLeftSibling(fnode);
+			fnode.setRightSibling(fnode);
+			min = fnode;
+		}
+		else								//add the node to the root list, adjust min if necessary
+		{
+			fnode.setRightSibling(min);
+			fnode.setLeftSibling(min.getLeftSibling());
+			min.getLeftSibling().setRightSibling(fnode);
+			min.setLeftSibling(fnode);
+			if(dist < min.getDistcance())
+				min = fnode;
+		}
+		size ++;
+		
+		if(index >= handles.length)
+			handles = Arrays.copyOf(handles, Math.max(index + 1, handles.length * 2));
+		handles[index] = fnode;
+		metrics.inserted();
+		return fnode;
+	}
+	
+	/**
+	 * test whether the node with certain index is in the heap
+	 * @param index the index value of the node
+	 * @return true if the node is in the heap
+	 */
+	public boolean contains(int index)
+	{
+		return index < handles.length && handles[index] != null;
+	}
+	
+	/**
+	 * get the heap node holding certain index, without searching the heap
+	 * @param index the index value of the node
+	 * @return the heap node, null if the index is not in the heap
+	 */
+	public Fnode getNode(int index)
+	{
+		return index < handles.length ? handles[index] : null;
 	}
 	
 	/**
@@ -326,6 +406,9 @@ public class FibonacciHeap
 				this.consolidate();		// adjustment of min is done in consolidate()
 			}
 			size--;
+			if(z.getIndex() < handles.length && handles[z.getIndex()] == z)
+				handles[z.getIndex()] = null;
+			metrics.extracted();
 		}
 		return z;
 	}
@@ -344,17 +427,29 @@ public class FibonacciHeap
 		}
 		
 		x.setDistance(k);
+		metrics.decreased();
 		Fnode y = x.getParent();
 		if(y != null && x.getDistcance() < y.getDistcance())
 		{
 			cut(x, y);			//move x to root list
-			cascadingCut(y);	//cascading cut if necessary
+			metrics.cut(1 + cascadingCut(y));	//cascading cut if necessary
 		}
 		
 		if(x.getDistcance() < min.getDistcance())
 			min = x;			//adjust min if necessary
 	}
 	
+	/**
+	 * decrease the value of distance of the node with certain index to k,
+	 * the node is located through the handle table instead of searchNode()
+	 * @param index the index value of a node in the heap
+	 * @param k is the new value of distance
+	 */
+	public void decreaseKey(int index, double k)
+	{
+		this.decreaseKey(handles[index], k);
+	}
+	
 	/**
 	 * cut node x from node y, and add x to the root list
 	 * @param x represents x to be cut
@@ -398,8 +493,9 @@ public class FibonacciHeap
 	/**
 	 * cascade y if its mark is set true, which means y has already lost one child before
 	 * @param y a node just lost one child
+	 * @return the number of nodes cut
 	 */
-	public void cascadingCut(Fnode y)
+	public int cascadingCut(Fnode y)
 	{
 		Fnode z = y.getParent();
 		if(z != null)
@@ -410,9 +506,10 @@ public class FibonacciHeap
 			else
 			{
 				this.cut(y, z);
-				this.cascadingCut(z);
+				return 1 + this.cascadingCut(z);
 			}
 		}
+		return 0;
 	}
 	
 	/**
@@ -425,6 +522,32 @@ public class FibonacciHeap
 		this.extractMin();
 	}
 	
+	/**
+	 * remove all nodes from the heap, and clear their handles
+	 */
+	public void clear()
+	{
+		ArrayDeque<Fnode> stack = new ArrayDeque<Fnode>();	//the lists still to be visited
+		if(min != null)
+			stack.push(min);
+		Fnode x, y;
+		while(!stack.isEmpty())
+		{
+			x = stack.pop();
+			y = x;
+			do
+			{
+				if(y.getIndex() < handles.length)
+					handles[y.getIndex()] = null;
+				if(y.getChild() != null)
+					stack.push(y.getChild());
+				y = y.getRightSibling();
+			}while(y != x);
+		}
+		min = null;
+		size = 0;
+	}
+	
 	/**
 	 * search a node in the heap rooted at x
 	 * @param index the index value of node to be searched
@@ -0,0 +1,406 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class generates random graphs of several families, with distances drawn
+ * uniformly from 1..maxWeight. The nodes are split into fixed blocks of rows,
+ * every block is generated in parallel from its own random number generator,
+ * split in block order from one seeded generator, so a seed always gives the
+ * same graph whatever the number of threads. Edges are sampled without replacement, there are neither
+ * duplicate edges nor loops
+ * @author Min Chen
+ *
+ */
+public class GraphGenerator
+{
+	private static final int BLOCK = 1024;			//rows per block
+
+	private long seed;
+	private int maxWeight;
+
+	/**
+	 * constructor
+	 * @param seed is the seed of the random number generators
+	 * @param maxWeight distances are drawn from 1..maxWeight
+	 */
+	public GraphGenerator(long seed, int maxWeight)
+	{
+		this.seed = seed;
+		this.maxWeight = maxWeight;
+	}
+
+	/**
+	 * uniform random graph G(n,m) with exactly m distinct edges. Every block of rows
+	 * receives its share of m in proportion to its number of possible edges, and
+	 * samples that many of them without replacement
+	 * @param n is the number of nodes
+	 * @param m is the number of edges, at most n*(n-1)
+	 * @return the graph
+	 */
+	public CsrGraph uniform(final int n, long m)
+	{
+		final long slots = (long) n * (n - 1);
+		if(m > slots)
+			m = slots;
+		final long[] share = shares(n, m, null);
+		return generate(n, share, new BlockSampler()
+		{
+			public void sample(int block, int lo, int hi, SplittableRandom random, Edges edges)
+			{
+				long s = (long) (hi - lo) * (n - 1);		//possible edges of the block
+				long k = share[block];
+				long position;
+				int u, v;
+				if(k > s / 2)							//dense, choose the possible edges to leave out
+				{
+					long[] excluded = new long[(int) ((s + 63) >>> 6)];
+					for(long i=0; i<s-k; )
+					{
+						position = random.nextLong(s);
+						if((excluded[(int) (position >>> 6)] & (1L << position)) == 0)
+						{
+							excluded[(int) (position >>> 6)] |= 1L << position;
+							i ++;
+						}
+					}
+					for(position=0; position<s; position++)
+						if((excluded[(int) (position >>> 6)] & (1L << position)) == 0)
+						{
+							u = lo + (int) (position / (n - 1));
+							v = (int) (position % (n - 1));
+							edges.add(u, v >= u ? v + 1 : v, random);	//skip the loop u->u
+						}
+				}
+				else
+				{
+					LongSet chosen = new LongSet((int) k);
+					while(chosen.size() < k)
+					{
+						position = random.nextLong(s);
+						if(chosen.add(position))
+						{
+							u = lo + (int) (position / (n - 1));
+							v = (int) (position % (n - 1));
+							edges.add(u, v >= u ? v + 1 : v, random);
+						}
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * uniform random graph with the given density, as in the random mode
+	 * @param n is the number of nodes
+	 * @param density is the ratio of edges to n*(n-1)
+	 * @return the graph
+	 */
+	public CsrGraph uniform(int n, double density)
+	{
+		return uniform(n, (long) (n * (n - 1L) * density));
+	}
+
+	/**
+	 * road-like grid graph: node r*cols+c is connected in both directions
+	 * to its right and lower neighbors, the two directions have the same distance
+	 * @param rows is the number of rows
+	 * @param cols is the number of columns
+	 * @return the graph
+	 */
+	public CsrGraph grid(int rows, final int cols)
+	{
+		final int n = rows * cols;
+		return generate(n, null, new BlockSampler()
+		{
+			public void sample(int block, int lo, int hi, SplittableRandom random, Edges edges)
+			{
+				for(int u=lo; u<hi; u++)
+				{
+					if((u % cols) > 0)					//left neighbor, same distance as its edge to the right
+						edges.add(u, u - 1, weight(u - 1, u));
+					if((u % cols) + 1 < cols)
+						edges.add(u, u + 1, weight(u, u + 1));
+					if(u >= cols)
+						edges.add(u, u - cols, weight(u - cols, u));
+					if(u + cols < n)
+						edges.add(u, u + cols, weight(u, u + cols));
+				}
+			}
+		});
+	}
+
+	/**
+	 * power-law random graph (Chung-Lu): node i has weight (i+1)^(-1/(exponent-1)),
+	 * and an edge u->v is drawn with probability proportional to the product of the
+	 * weights of u and v, so the degrees follow a power law with the given exponent
+	 * @param n is the number of nodes
+	 * @param m is the number of edges, fewer are generated if the heaviest nodes saturate
+	 * @param exponent is the exponent of the degree distribution, larger than 2
+	 * @return the graph
+	 */
+	public CsrGraph powerLaw(final int n, long m, double exponent)
+	{
+		final double[] cumulative = new double[n + 1];		//cumulative weights of the nodes
+		for(int i=0; i<n; i++)
+			cumulative[i + 1] = cumulative[i] + Math.pow(i + 1, -1 / (exponent - 1));
+		final long[] share = shares(n, Math.min(m, (long) n * (n - 1)), cumulative);
+		return generate(n, share, new BlockSampler()
+		{
+			public void sample(int block, int lo, int hi, SplittableRandom random, Edges edges)
+			{
+				long k = share[block];
+				LongSet chosen = new LongSet((int) k);
+				int u, v;
+				for(long attempts=0; chosen.size() < k && attempts < 20 * k; attempts++)
+				{
+					u = pick(cumulative, cumulative[lo] + random.nextDouble() * (cumulative[hi] - cumulative[lo]));
+					v = pick(cumulative, random.nextDouble() * cumulative[n]);
+					if(u != v && chosen.add((long) u * n + v))
+						edges.add(u, v, random);
+				}
+			}
+		});
+	}
+
+	/**
+	 * split m edges among the blocks in proportion to their size, or to their weight
+	 * @param n is the number of nodes
+	 * @param m is the number of edges
+	 * @param cumulative the cumulative node weights, null to weigh the rows equally
+	 * @return the number of edges of every block
+	 */
+	private long[] shares(int n, long m, double[] cumulative)
+	{
+		int blocks = (n + BLOCK - 1) / BLOCK;
+		long[] share = new long[blocks];
+		double total = cumulative == null ? n : cumulative[n];
+		double part;
+		long assigned = 0;
+		for(int b=0; b<blocks; b++)
+		{
+			int lo = b * BLOCK, hi = Math.min(n, lo + BLOCK);
+			part = cumulative == null ? hi - lo : cumulative[hi] - cumulative[lo];
+			share[b] = (long) Math.floor(m * part / total);
+			share[b] = Math.min(share[b], (long) (hi - lo) * (n - 1));
+			assigned += share[b];
+		}
+		SplittableRandom random = new SplittableRandom(seed);		//hand out the rounding remainder
+		for(int b; assigned < m && blocks > 0; )
+		{
+			b = random.nextInt(blocks);
+			if(share[b] < (long) (Math.min(n, b * BLOCK + BLOCK) - b * BLOCK) * (n - 1))
+			{
+				share[b] ++;
+				assigned ++;
+			}
+		}
+		return share;
+	}
+
+	/**
+	 * distance of the undirected grid edge between u and v,
+	 * a function of the seed and the two nodes only, hashed with the
+	 * SplitMix64 finalizer so no generator is created per edge
+	 */
+	private double weight(int u, int v)
+	{
+		long z = (seed ^ ((long) u << 32 | v)) + 0x9e3779b97f4a7c15L;
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		z ^= z >>> 31;
+		return ((z >>> 32) * maxWeight >>> 32) + 1;		//the high 32 bits scaled to 0..maxWeight-1
+	}
+
+	/**
+	 * generate the blocks in parallel and build the graph
+	 * @param n is the number of nodes
+	 * @param share the number of edges of every block, used only to size the arrays
+	 * @param sampler generates the edges of one block
+	 * @return the graph
+	 */
+	private CsrGraph generate(int n, long[] share, final BlockSampler sampler)
+	{
+		int blocks = (n + BLOCK - 1) / BLOCK;
+		final Edges[] parts = new Edges[blocks];
+		SplittableRandom[] randoms = new SplittableRandom[blocks];
+		SplittableRandom root = new SplittableRandom(seed);
+		for(int b=0; b<blocks; b++)
+		{
+			parts[b] = new Edges(share == null ? 4 * BLOCK : (int) Math.max(share[b], 16));
+			randoms[b] = root.split();			//independent streams, unlike nearby seeds
+		}
+
+		ForkJoinPool.commonPool().invoke(new BlockTask(sampler, parts, randoms, n, 0, blocks));
+
+		long m = 0;
+		for(Edges part : parts)
+			m += part.size;
+		if(m > Integer.MAX_VALUE)
+		{
+			System.out.println("Error! Too many edges for a graph.");
+			System.exit(1);
+		}
+		int[] starts = new int[(int) m];
+		int[] ends = new int[(int) m];
+		double[] weights = new double[(int) m];
+		int position = 0;
+		for(Edges part : parts)
+		{
+			System.arraycopy(part.starts, 0, starts, position, part.size);
+			System.arraycopy(part.ends, 0, ends, position, part.size);
+			System.arraycopy(part.weights, 0, weights, position, part.size);
+			position += part.size;
+		}
+		return new CsrGraph(starts, ends, weights, (int) m, n);
+	}
+
+	/**
+	 * find the node whose cumulative weight range holds x
+	 */
+	private static int pick(double[] cumulative, double x)
+	{
+		int i = Arrays.binarySearch(cumulative, x);
+		i = i >= 0 ? i : -i - 2;
+		return Math.max(0, Math.min(i, cumulative.length - 2));
+	}
+
+	/**
+	 * Interface of the edge generation of one block of rows
+	 */
+	private interface BlockSampler
+	{
+		void sample(int block, int lo, int hi, SplittableRandom random, Edges edges);
+	}
+
+	/**
+	 * Task generating the blocks lo..hi-1
+	 */
+	private class BlockTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+		private BlockSampler sampler;
+		private Edges[] parts;
+		private SplittableRandom[] randoms;
+		private int n, lo, hi;
+
+		BlockTask(BlockSampler sampler, Edges[] parts, SplittableRandom[] randoms, int n, int lo, int hi)
+		{
+			this.sampler = sampler;
+			this.parts = parts;
+			this.randoms = randoms;
+			this.n = n;
+			this.lo = lo;
+			this.hi = hi;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if(hi - lo == 1)
+				sampler.sample(lo, lo * BLOCK, Math.min(n, lo * BLOCK + BLOCK), randoms[lo], parts[lo]);
+			else if(hi - lo > 1)
+			{
+				int mid = (lo + hi) >>> 1;
+				invokeAll(new BlockTask(sampler, parts, randoms, n, lo, mid),
+						new BlockTask(sampler, parts, randoms, n, mid, hi));
+			}
+		}
+	}
+
+	/**
+	 * Growable edge arrays of one block
+	 */
+	private class Edges
+	{
+		private int[] starts, ends;
+		private double[] weights;
+		private int size;
+
+		Edges(int capacity)
+		{
+			starts = new int[capacity];
+			ends = new int[capacity];
+			weights = new double[capacity];
+		}
+
+		void add(int u, int v, SplittableRandom random)
+		{
+			add(u, v, random.nextInt(maxWeight) + 1);
+		}
+
+		void add(int u, int v, double d)
+		{
+			if(size == starts.length)
+			{
+				starts = Arrays.copyOf(starts, size * 2);
+				ends = Arrays.copyOf(ends, size * 2);
+				weights = Arrays.copyOf(weights, size * 2);
+			}
+			starts[size] = u;
+			ends[size] = v;
+			weights[size] = d;
+			size ++;
+		}
+	}
+
+	/**
+	 * Open addressing hash set of non-negative longs
+	 */
+	private static class LongSet
+	{
+		private long[] keys;				//-1 marks an empty slot
+		private int size;
+
+		LongSet(int expected)
+		{
+			int capacity = Integer.highestOneBit(Math.max(expected, 8) * 2) * 2;
+			keys = new long[capacity];
+			Arrays.fill(keys, -1);
+		}
+
+		int size()
+		{
+			return size;
+		}
+
+		/**
+		 * add a key
+		 * @return false if the key is already in the set
+		 */
+		boolean add(long key)
+		{
+			if(2 * (size + 1) > keys.length)
+				grow();
+			int mask = keys.length - 1;
+			int i = (int) (mix(key) & mask);
+			while(keys[i] != -1)
+			{
+				if(keys[i] == key)
+					return false;
+				i = (i + 1) & mask;
+			}
+			keys[i] = key;
+			size ++;
+			return true;
+		}
+
+		private void grow()
+		{
+			long[] old = keys;
+			keys = new long[old.length * 2];
+			Arrays.fill(keys, -1);
+			size = 0;
+			for(long key : old)
+				if(key != -1)
+					add(key);
+		}
+
+		private static long mix(long key)
+		{
+			key *= 0x9E3779B97F4A7C15L;
+			return key ^ (key >>> 32);
+		}
+	}
+}
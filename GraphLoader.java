@@ -0,0 +1,342 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * This class reads the edge information ("start end distance" per line, ending with
+ * a line "*") straight from bytes into primitive arrays and builds the graph.
+ * A file is memory-mapped and a stream is read into a reusable byte array, numbers
+ * are parsed digit by digit without creating any String, and no object is
+ * allocated per edge.
+ * Distances may have a fractional part, e.g. 2.75.
+ * A dense graph may also be given as an adjacency matrix, one line per node with
+ * the distances to every node, "-" where there is no edge
+ * @author Min Chen
+ *
+ */
+public class GraphLoader
+{
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final long REGION = 1L << 30;
+	private static final double[] POWERS = new double[19];	//POWERS[i] is 10^i
+	static
+	{
+		POWERS[0] = 1;
+		for(int i=1; i<POWERS.length; i++)
+			POWERS[i] = POWERS[i - 1] * 10;
+	}
+
+	private InputStream in;				//the input is either a stream
+	private FileChannel file;			//or a file mapped region by region
+	private ByteBuffer region;
+	private long mapped;				//bytes of the file mapped so far
+	private byte[] bytes = new byte[BUFFER_SIZE];
+	private int position, limit;		//the unread bytes are bytes[position..limit-1]
+	private int line = 1;
+
+	private int m;						//number of edges read so far
+	private int[] starts = new int[1024];
+	private int[] ends = new int[1024];
+	private double[] weights = new double[1024];
+
+	private GraphLoader(InputStream in)
+	{
+		this.in = in;
+	}
+
+	private GraphLoader(FileChannel file)
+	{
+		this.file = file;
+	}
+
+	/**
+	 * read the edge information from a file and build the graph,
+	 * a binary graph snapshot is recognised by its magic number and loaded as it is
+	 * @param filename is the file that stores the edge information or the snapshot
+	 * @return the graph
+	 * @throws IOException if the file cannot be read or is malformed
+	 */
+	public static CsrGraph load(String filename) throws IOException
+	{
+		if(GraphSnapshot.isSnapshot(filename))
+			return GraphSnapshot.load(filename);
+		FileChannel file = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+		try
+		{
+			return new GraphLoader(file).parse();
+		}
+		finally
+		{
+			file.close();
+		}
+	}
+
+	/**
+	 * read the edge information from a stream and build the graph,
+	 * the stream is left open
+	 * @param in is the stream, e.g. System.in
+	 * @return the graph
+	 * @throws IOException if the stream cannot be read or is malformed
+	 */
+	public static CsrGraph read(InputStream in) throws IOException
+	{
+		return new GraphLoader(in).parse();
+	}
+
+	/**
+	 * read an adjacency matrix from a file and build the graph
+	 * @param filename is the file that stores the matrix
+	 * @return the graph
+	 * @throws IOException if the file cannot be read or is malformed
+	 */
+	public static CsrGraph loadMatrix(String filename) throws IOException
+	{
+		FileChannel file = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+		try
+		{
+			return new GraphLoader(file).parseMatrix();
+		}
+		finally
+		{
+			file.close();
+		}
+	}
+
+	/**
+	 * read an adjacency matrix from a stream and build the graph,
+	 * the stream is left open
+	 * @param in is the stream, e.g. System.in
+	 * @return the graph
+	 * @throws IOException if the stream cannot be read or is malformed
+	 */
+	public static CsrGraph readMatrix(InputStream in) throws IOException
+	{
+		return new GraphLoader(in).parseMatrix();
+	}
+
+	/**
+	 * parse the rows of the matrix until "*" or the end of the input, every row
+	 * has as many entries as the first one and there are as many rows as entries,
+	 * the diagonal is ignored
+	 * @return the graph
+	 * @throws IOException
+	 */
+	private CsrGraph parseMatrix() throws IOException
+	{
+		int c, n = -1, row = 0, column = 0;
+		while(true)
+		{
+			c = skipBlanks();
+			if(c < 0 || c == '\n' || c == '*')			//end of a row
+			{
+				if(column > 0)
+				{
+					if(n < 0)
+						n = column;
+					else if(column != n)
+						throw error(n + " entries expected");
+					row ++;
+					column = 0;
+				}
+				if(c != '\n')
+					break;
+				line ++;
+				continue;
+			}
+
+			if(c == '-')
+				column ++;
+			else
+			{
+				if(m == starts.length)
+				{
+					starts = Arrays.copyOf(starts, m * 2);
+					ends = Arrays.copyOf(ends, m * 2);
+					weights = Arrays.copyOf(weights, m * 2);
+				}
+				starts[m] = row;
+				ends[m] = column;
+				weights[m] = parseDouble(c);
+				if(row != column ++)
+					m ++;
+			}
+		}
+		if(row != Math.max(n, 0))
+			throw error(Math.max(n, 0) + " rows expected");
+		return new CsrGraph(starts, ends, weights, m, row);
+	}
+
+	/**
+	 * parse the lines until "*" or the end of the input
+	 * @return the graph
+	 * @throws IOException
+	 */
+	private CsrGraph parse() throws IOException
+	{
+		int c, n = 0;
+		int start, end;
+		while(true)
+		{
+			c = skipBlanks();
+			if(c == '\n')
+			{
+				line ++;
+				continue;
+			}
+			if(c < 0 || c == '*')
+				break;
+
+			start = parseInt(c);
+			end = parseInt(skipBlanks());
+			if(m == starts.length)
+			{
+				starts = Arrays.copyOf(starts, m * 2);
+				ends = Arrays.copyOf(ends, m * 2);
+				weights = Arrays.copyOf(weights, m * 2);
+			}
+			starts[m] = start;
+			ends[m] = end;
+			weights[m] = parseDouble(skipBlanks());
+			m ++;
+			n = Math.max(n, Math.max(start, end) + 1);	//number of nodes is the maximum index + 1
+
+			c = skipBlanks();
+			if(c == '\n')
+				line ++;
+			else if(c >= 0)
+				throw error("end of line expected");
+		}
+		return new CsrGraph(starts, ends, weights, m, n);
+	}
+
+	/**
+	 * get the next byte
+	 * @return the byte, -1 at the end of the input
+	 * @throws IOException
+	 */
+	private int next() throws IOException
+	{
+		if(position == limit && !fill())
+			return -1;
+		return bytes[position++] & 0xff;
+	}
+
+	/**
+	 * fill the byte array with the next part of the input,
+	 * a file is mapped into memory at most REGION bytes at a time
+	 * @return false at the end of the input
+	 * @throws IOException
+	 */
+	private boolean fill() throws IOException
+	{
+		position = 0;
+		limit = 0;
+		if(in != null)
+		{
+			limit = Math.max(in.read(bytes), 0);
+			return limit > 0;
+		}
+		if(region == null || !region.hasRemaining())
+		{
+			if(mapped == file.size())
+				return false;
+			long length = Math.min(REGION, file.size() - mapped);
+			region = file.map(FileChannel.MapMode.READ_ONLY, mapped, length);
+			mapped += length;
+		}
+		limit = Math.min(bytes.length, region.remaining());
+		region.get(bytes, 0, limit);
+		return true;
+	}
+
+	/**
+	 * skip spaces, tabs and carriage returns
+	 * @return the first other byte, -1 at the end of the input
+	 * @throws IOException
+	 */
+	private int skipBlanks() throws IOException
+	{
+		int c;
+		do
+		{
+			c = next();
+		}while(c == ' ' || c == '\t' || c == '\r');
+		return c;
+	}
+
+	/**
+	 * parse a node index, below Integer.MAX_VALUE so the number of nodes fits in an int
+	 * @param c is its first byte
+	 * @return the index
+	 * @throws IOException
+	 */
+	private int parseInt(int c) throws IOException
+	{
+		if(c < '0' || c > '9')
+			throw error("node index expected");
+		long value = 0;
+		while(c >= '0' && c <= '9')
+		{
+			value = value * 10 + (c - '0');
+			if(value >= Integer.MAX_VALUE)
+				throw error("node index too large");
+			c = next();
+		}
+		pushBack(c);
+		return (int) value;
+	}
+
+	/**
+	 * parse a non-negative distance with an optional fractional part
+	 * @param c is its first byte
+	 * @return the distance
+	 * @throws IOException
+	 */
+	private double parseDouble(int c) throws IOException
+	{
+		if((c < '0' || c > '9') && c != '.')
+			throw error("distance expected");
+		long mantissa = 0;
+		int digits = 0, scale = 0;			//significant digits kept, digits after the point
+		boolean point = false;
+		while((c >= '0' && c <= '9') || (c == '.' && !point))
+		{
+			if(c == '.')
+				point = true;
+			else if(digits < 18)
+			{
+				mantissa = mantissa * 10 + (c - '0');
+				if(mantissa > 0)
+					digits ++;
+				if(point)
+					scale ++;
+			}
+			else if(!point)
+				scale --;					//digits beyond the precision of a long only scale the value
+			c = next();
+		}
+		pushBack(c);
+		if(scale >= 0)
+			return scale < POWERS.length ? mantissa / POWERS[scale] : mantissa / Math.pow(10, scale);
+		return -scale < POWERS.length ? mantissa * POWERS[-scale] : mantissa * Math.pow(10, -scale);
+	}
+
+	/**
+	 * give back the byte following a number
+	 * @param c is the byte, -1 at the end of the input
+	 */
+	private void pushBack(int c)
+	{
+		if(c >= 0)
+			position --;
+	}
+
+	private IOException error(String message)
+	{
+		return new IOException("line " + line + ": " + message);
+	}
+}
@@ -0,0 +1,183 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class saves a graph in a compact binary form and loads it back.
+ * The file holds a header (magic number, version, number of nodes n and
+ * of edges m) followed by the compressed sparse row arrays: n+1 offsets,
+ * m targets and m weights, all little-endian. Loading memory-maps the file
+ * and copies every array in one bulk transfer, no text is parsed
+ * @author Min Chen
+ *
+ */
+public class GraphSnapshot
+{
+	public static final int MAGIC = 0x47505353;		//"SSPG" in little-endian
+	private static final int VERSION = 1;
+	private static final int HEADER = 16;			//bytes before the offsets
+	private static final long REGION = 1L << 30;	//a file is mapped at most 1 GB at a time
+
+	/**
+	 * test whether a file is a graph snapshot
+	 * @param filename is the file
+	 * @return true if the file starts with the magic number
+	 * @throws IOException
+	 */
+	public static boolean isSnapshot(String filename) throws IOException
+	{
+		FileChannel file = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+		try
+		{
+			ByteBuffer header = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+			while(header.hasRemaining() && file.read(header) >= 0);
+			return !header.hasRemaining() && header.getInt(0) == MAGIC;
+		}
+		finally
+		{
+			file.close();
+		}
+	}
+
+	/**
+	 * save a graph to a file
+	 * @param g is the graph
+	 * @param filename is the file to be written
+	 * @throws IOException
+	 */
+	public static void save(CsrGraph g, String filename) throws IOException
+	{
+		int n = g.getNumberOfNodes();
+		int m = g.getNumberOfEdges();
+		long size = HEADER + 4L * (n + 1) + 4L * m + 8L * m;
+		FileChannel file = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try
+		{
+			MappedByteBuffer header = file.map(FileChannel.MapMode.READ_WRITE, 0, HEADER);
+			header.order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(m);
+
+			long position = HEADER;
+			position = transfer(file, position, g.getOffsets(), null, n + 1, true);
+			position = transfer(file, position, g.getTargets(), null, m, true);
+			position = transfer(file, position, null, g.getWeights(), m, true);
+			if(position != size)
+				throw new IOException("snapshot size mismatch");
+		}
+		finally
+		{
+			file.close();
+		}
+	}
+
+	/**
+	 * load a graph saved by save()
+	 * @param filename is the file to be read
+	 * @return the graph
+	 * @throws IOException if the file is not a graph snapshot, is truncated or holds an inconsistent graph
+	 */
+	public static CsrGraph load(String filename) throws IOException
+	{
+		FileChannel file = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+		try
+		{
+			if(file.size() < HEADER)
+				throw new IOException(filename + " is not a graph snapshot");
+			MappedByteBuffer header = file.map(FileChannel.MapMode.READ_ONLY, 0, HEADER);
+			header.order(ByteOrder.LITTLE_ENDIAN);
+			if(header.getInt() != MAGIC)
+				throw new IOException(filename + " is not a graph snapshot");
+			if(header.getInt() != VERSION)
+				throw new IOException(filename + " has an unsupported snapshot version");
+			int n = header.getInt();
+			int m = header.getInt();
+			if(n < 0 || m < 0)
+				throw new IOException(filename + " has a negative number of nodes or edges");
+			if(file.size() != HEADER + 4L * (n + 1) + 12L * m)
+				throw new IOException(filename + " is truncated");
+
+			int[] offsets = new int[n + 1];
+			int[] targets = new int[m];
+			double[] weights = new double[m];
+			long position = HEADER;
+			position = transfer(file, position, offsets, null, n + 1, false);
+			position = transfer(file, position, targets, null, m, false);
+			transfer(file, position, null, weights, m, false);
+			check(filename, offsets, targets, weights);
+			return new CsrGraph(offsets, targets, weights);
+		}
+		finally
+		{
+			file.close();
+		}
+	}
+
+	/**
+	 * check that the arrays of a snapshot form a graph, so a corrupt file
+	 * fails here rather than deep inside a search
+	 * @param filename is the file, for the messages
+	 * @param offsets the n+1 offsets
+	 * @param targets the m ending points
+	 * @param weights the m weights
+	 * @throws IOException if the offsets do not run from 0 to m without decreasing,
+	 * an ending point is not a node or a weight is negative
+	 */
+	private static void check(String filename, int[] offsets, int[] targets, double[] weights) throws IOException
+	{
+		int n = offsets.length - 1;
+		if(offsets[0] != 0 || offsets[n] != targets.length)
+			throw new IOException(filename + " has offsets not running from 0 to " + targets.length);
+		for(int u=0; u<n; u++)
+			if(offsets[u + 1] < offsets[u])
+				throw new IOException(filename + " has decreasing offsets at node " + u);
+		for(int e=0; e<targets.length; e++)
+		{
+			if(targets[e] < 0 || targets[e] >= n)
+				throw new IOException(filename + " has edge " + e + " ending at node " + targets[e] + " out of range 0.." + (n - 1));
+			if(!(weights[e] >= 0))
+				throw new IOException(filename + " has edge " + e + " with negative weight " + weights[e]);
+		}
+	}
+
+	/**
+	 * copy an array to or from the file through mapped regions
+	 * @param file is the file
+	 * @param position is the offset of the array in the file
+	 * @param ints the array if it holds ints, otherwise null
+	 * @param doubles the array if it holds doubles, otherwise null
+	 * @param length is the number of entries
+	 * @param write true to copy the array to the file, false to copy the file to the array
+	 * @return the offset following the array in the file
+	 * @throws IOException
+	 */
+	private static long transfer(FileChannel file, long position, int[] ints, double[] doubles, int length, boolean write)
+			throws IOException
+	{
+		int width = ints != null ? 4 : 8;
+		int perRegion = (int) (REGION / width);
+		FileChannel.MapMode mode = write ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+		MappedByteBuffer region;
+		int count;
+		for(int i=0; i<length; i += count)
+		{
+			count = Math.min(perRegion, length - i);
+			region = file.map(mode, position, (long) count * width);
+			region.order(ByteOrder.LITTLE_ENDIAN);
+			if(ints != null && write)
+				region.asIntBuffer().put(ints, i, count);
+			else if(ints != null)
+				region.asIntBuffer().get(ints, i, count);
+			else if(write)
+				region.asDoubleBuffer().put(doubles, i, count);
+			else
+				region.asDoubleBuffer().get(doubles, i, count);
+			position += (long) count * width;
+		}
+		return position;
+	}
+}
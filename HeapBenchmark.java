@@ -0,0 +1,97 @@
+import java.util.Arrays;
+
+/**
+ * This class compares the Fibonacci heap scheme that locates heap nodes
+ * by searchNode() with the one that uses the handle table of the heap,
+ * on the same random graphs swept by the random mode
+ * @author Min Chen
+ *
+ */
+public class HeapBenchmark
+{
+	public static void main(String[] args)
+	{
+		long seed = args.length > 0 ? Long.parseLong(args[0]) : System.nanoTime();
+		CsrGraph g;
+		double[] time = new double[2];
+		double[][] expected, actual;
+		System.out.println("Number of vertices\t" + "Density\t\t" + "F-heap search\t" + "F-heap handle\t" + "Speedup");
+		for(int n=100; n<=500; n = n + 100)
+			for(int j=1; j<=10; j++)
+			{
+				g = new GraphGenerator(seed++, 1000).uniform(n, j * 0.1);
+
+				time[0] = System.currentTimeMillis();
+				expected = searchScheme(g);
+				time[0] = System.currentTimeMillis() - time[0];
+
+				time[1] = System.currentTimeMillis();
+				actual = ssp.fheapScheme(g);
+				time[1] = System.currentTimeMillis() - time[1];
+
+				for(int s=0; s<n; s++)
+					for(int t=0; t<n; t++)
+						if(expected[s][t] != actual[s][t])
+						{
+							System.out.println("Error! Distance mismatch from " + s + " to " + t);
+							System.exit(1);
+						}
+
+				System.out.println(n + "\t\t\t" + j * 10 + "%\t\t" + time[0] + "\t\t" + time[1] + "\t\t"
+						+ String.format("%.1fx", time[0] / Math.max(time[1], 1)));
+			}
+	}
+
+	/**
+	 * Fibonacci heap scheme which finds the node to be decreased by searchNode(),
+	 * kept as the baseline for the comparison
+	 * @param g is the graph
+	 * @return the shortest distance array
+	 */
+	private static double[][] searchScheme(CsrGraph g)
+	{
+		int n = g.getNumberOfNodes();
+		int[] offsets = g.getOffsets();
+		int[] targets = g.getTargets();
+		double[] weights = g.getWeights();
+		FibonacciHeap fheap = new FibonacciHeap();
+		double[][] distVec = new double[n][n];
+		for(int i=0; i<n; i++)
+			for(int j=0; j<n; j++)
+				distVec[i][j] = ssp.INFINITY;
+		int minIndex = 0;
+		int v;
+		double[] dist;
+		boolean[] inserted = new boolean[n];
+
+		for(int source=0; source<n; source++)
+		{
+			dist = distVec[source];
+			dist[source] = 0;
+			Arrays.fill(inserted, false);
+			fheap.insert(source, 0);
+			inserted[source] = true;
+
+			while(fheap.getMin() != null)
+			{
+				minIndex = fheap.extractMin().getIndex();
+				for(int e=offsets[minIndex]; e<offsets[minIndex + 1]; e++)
+				{
+					v = targets[e];
+					if(dist[v] > dist[minIndex] + weights[e])
+					{
+						dist[v] = dist[minIndex] + weights[e];
+						if(!inserted[v])
+						{
+							fheap.insert(v, dist[v]);
+							inserted[v] = true;
+						}
+						else
+							fheap.decreaseKey(fheap.searchNode(v, fheap.getMin()), dist[v]);
+					}
+				}
+			}
+		}
+		return distVec;
+	}
+}
@@ -0,0 +1,211 @@
+import java.util.Arrays;
+
+/**
+ * This class keeps the shortest distances from one source in a dynamic graph and
+ * repairs them after every edge change instead of recomputing them, in the way of
+ * Ramalingam and Reps. The shortest path tree is kept as the parent of every node.
+ * A shorter or new edge (u,v) can only improve v and the nodes reached through it,
+ * so a Dijkstra search starts at v and only visits the improved nodes.
+ * A longer or removed edge only matters if it is the tree edge of v, then the nodes
+ * of the subtree of v are the affected ones: each of them first takes its best
+ * distance through an unaffected predecessor, and a Dijkstra search restricted to
+ * the affected nodes settles them. Either way the work is proportional to the nodes
+ * whose distance changes and to their edges, not to the whole graph.
+ * An instance listens to the graph until close() is called, it must not be used
+ * by another thread while the graph changes
+ * @author Min Chen
+ *
+ */
+public class IncrementalShortestPaths implements EdgeListener
+{
+	private DynamicGraph g;
+	private int source;
+	private int n;
+	private double[] dist;
+	private int[] parent;				//parent[v] is the predecessor of v in the tree, -1 for the source and unreachable nodes
+	private DaryHeap heap;
+	private int[] affected;				//subtree of the last removed tree edge
+	private int[] mark;					//mark[v] == stamp if v is affected by the current change
+	private int stamp;
+	private int repaired;				//nodes whose distance was recomputed by the last change
+
+	/**
+	 * constructor, compute the shortest paths from the source and start listening to the graph
+	 * @param g is the graph
+	 * @param source is the index of the source
+	 */
+	public IncrementalShortestPaths(DynamicGraph g, int source)
+	{
+		this.g = g;
+		this.source = source;
+		n = g.getNumberOfNodes();
+		dist = new double[n];
+		parent = new int[n];
+		heap = new DaryHeap(ssp.DHEAP_ARITY, n);
+		affected = new int[n];
+		mark = new int[n];
+		Arrays.fill(dist, ssp.INFINITY);
+		Arrays.fill(parent, -1);
+		dist[source] = 0;
+		heap.insert(source, 0);
+		propagate(false);
+		g.addListener(this);
+	}
+
+	/**
+	 * stop listening to the graph, the distances are not repaired any more
+	 */
+	public void close()
+	{
+		g.removeListener(this);
+	}
+
+	public int getSource()
+	{
+		return source;
+	}
+
+	/**
+	 * get the shortest distance from the source to a node
+	 * @param v is the index of the node
+	 * @return the distance, infinity if v is unreachable
+	 */
+	public double getDistance(int v)
+	{
+		return dist[v];
+	}
+
+	/**
+	 * get the predecessor of a node on its shortest path
+	 * @param v is the index of the node
+	 * @return the predecessor, -1 for the source and unreachable nodes
+	 */
+	public int getParent(int v)
+	{
+		return parent[v];
+	}
+
+	/**
+	 * get a shortest path from the source to a node
+	 * @param v is the index of the node
+	 * @return the nodes of the path from the source to v, empty if v is unreachable
+	 */
+	public int[] path(int v)
+	{
+		return Dijkstra.path(parent, source, v);
+	}
+
+	/**
+	 * copy the shortest distances from the source
+	 * @param row receives the distance to every node
+	 */
+	public void getDistances(double[] row)
+	{
+		System.arraycopy(dist, 0, row, 0, n);
+	}
+
+	/**
+	 * get the number of nodes whose distance was recomputed by the last change
+	 * @return the number of nodes
+	 */
+	public int getRepaired()
+	{
+		return repaired;
+	}
+
+	@Override
+	public void edgeChanged(int u, int v, double oldWeight, double newWeight)
+	{
+		repaired = 0;
+		if(newWeight < oldWeight)
+		{
+			if(dist[u] + newWeight < dist[v])
+			{
+				dist[v] = dist[u] + newWeight;
+				parent[v] = u;
+				heap.insert(v, dist[v]);
+				propagate(false);
+			}
+		}
+		else if(newWeight > oldWeight && parent[v] == u)
+			increase(v);
+	}
+
+	/**
+	 * repair the subtree of v after its tree edge became longer or was removed
+	 * @param v is the node whose tree edge changed
+	 */
+	private void increase(int v)
+	{
+		stamp ++;
+		int count = 0, x, y;
+		affected[count++] = v;					//collect the subtree of v through the tree edges
+		mark[v] = stamp;
+		for(int i=0; i<count; i++)
+		{
+			x = affected[i];
+			for(int j=0; j<g.getOutDegree(x); j++)
+			{
+				y = g.getOutTarget(x, j);
+				if(parent[y] == x && mark[y] != stamp)
+				{
+					mark[y] = stamp;
+					affected[count++] = y;
+				}
+			}
+		}
+
+		double d;
+		for(int i=0; i<count; i++)				//best distance of every affected node through an unaffected predecessor
+		{
+			x = affected[i];
+			dist[x] = ssp.INFINITY;
+			parent[x] = -1;
+			for(int j=0; j<g.getInDegree(x); j++)
+			{
+				y = g.getInSource(x, j);
+				d = dist[y] + g.getInWeight(x, j);
+				if(mark[y] != stamp && d < dist[x])
+				{
+					dist[x] = d;
+					parent[x] = y;
+				}
+			}
+			if(dist[x] < ssp.INFINITY)
+				heap.insert(x, dist[x]);
+		}
+		propagate(true);
+		repaired = count;
+	}
+
+	/**
+	 * run Dijkstra's algorithm from the nodes in the heap,
+	 * only nodes whose distance becomes shorter are visited
+	 * @param restricted true to relax only the edges to affected nodes
+	 */
+	private void propagate(boolean restricted)
+	{
+		int u, v;
+		double d;
+		while(!heap.isEmpty())
+		{
+			u = heap.extractMin();
+			if(!restricted)
+				repaired ++;
+			for(int j=0; j<g.getOutDegree(u); j++)
+			{
+				v = g.getOutTarget(u, j);
+				d = dist[u] + g.getOutWeight(u, j);
+				if(d < dist[v] && (!restricted || mark[v] == stamp))
+				{
+					dist[v] = d;
+					parent[v] = u;
+					if(heap.contains(v))
+						heap.decreaseKey(v, d);
+					else
+						heap.insert(v, d);
+				}
+			}
+		}
+	}
+}
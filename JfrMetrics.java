@@ -0,0 +1,51 @@
+/**
+ * This class counts the operations like OperationCounters, and in addition
+ * commits a SearchEvent with the operations of every search to the flight recorder.
+ * When no recording enables the event, it is dropped as soon as the search begins
+ * @author Min Chen
+ *
+ */
+public class JfrMetrics extends OperationCounters
+{
+	private SearchEvent event;							//event of the current search, null if disabled
+	private OperationCounters before = new OperationCounters();	//counters when the current search began
+
+	@Override
+	public void begin(int source)
+	{
+		super.begin(source);
+		event = new SearchEvent();
+		if(!event.isEnabled())
+		{
+			event = null;
+			return;
+		}
+		before.reset();
+		before.add(this);
+		event.begin();
+	}
+
+	@Override
+	public void end(int source, int settled)
+	{
+		super.end(source, settled);
+		if(event == null)
+			return;
+		event.end();
+		if(event.shouldCommit())
+		{
+			event.source = source;
+			event.settled = settled;
+			event.inserts = getInserts() - before.getInserts();
+			event.decreaseKeys = getDecreaseKeys() - before.getDecreaseKeys();
+			event.extractMins = getExtractMins() - before.getExtractMins();
+			event.links = getLinks() - before.getLinks();
+			event.cuts = getCuts() - before.getCuts();
+			event.cutDepth = getCutDepth() - before.getCutDepth();
+			event.attempted = getAttempted() - before.getAttempted();
+			event.improved = getImproved() - before.getImproved();
+			event.commit();
+		}
+		event = null;
+	}
+}
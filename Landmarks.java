@@ -0,0 +1,195 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * This class implements the landmark tables used by goal-directed (ALT) search.
+ * For every landmark l it stores the shortest distances from l to every node and
+ * from every node to l. By the triangle inequality both give a lower bound of the
+ * distance between any two nodes. The tables can be saved to and loaded from a file,
+ * so the preprocessing runs once per graph
+ * @author Min Chen
+ *
+ */
+public class Landmarks
+{
+	private static final int MAGIC = 0x414c5431;	//"ALT1"
+
+	private int n;
+	private int[] nodes;			//the landmarks
+	private double[][] from;		//from[i][v] is the distance from landmark i to v
+	private double[][] to;			//to[i][v] is the distance from v to landmark i
+
+	/**
+	 * constructor
+	 * @param nodes are the landmarks
+	 * @param from from[i][v] is the distance from landmark i to v
+	 * @param to to[i][v] is the distance from v to landmark i
+	 */
+	public Landmarks(int[] nodes, double[][] from, double[][] to)
+	{
+		this.n = from.length > 0 ? from[0].length : 0;
+		this.nodes = nodes;
+		this.from = from;
+		this.to = to;
+	}
+
+	/**
+	 * choose k landmarks by farthest-point selection and compute their tables,
+	 * the first landmark is the node farthest from node 0, every next one is the
+	 * node farthest from the landmarks chosen so far
+	 * @param g is the graph
+	 * @param k is the number of landmarks
+	 * @return the landmarks
+	 */
+	public static Landmarks select(CsrGraph g, int k)
+	{
+		int n = g.getNumberOfNodes();
+		k = Math.min(k, n);
+		Dijkstra forward = new Dijkstra(g, Scheme.DHEAP);
+		Dijkstra backward = new Dijkstra(g.reverse(), Scheme.DHEAP);
+		int[] nodes = new int[k];
+		double[][] from = new double[k][];
+		double[][] to = new double[k][];
+
+		double[] nearest = forward.shortestPaths(0);	//distance from the chosen landmarks to every node
+		for(int i=0; i<k; i++)
+		{
+			nodes[i] = farthest(nearest);
+			from[i] = forward.shortestPaths(nodes[i]);
+			to[i] = backward.shortestPaths(nodes[i]);
+			for(int v=0; v<n; v++)
+				nearest[v] = i == 0 ? from[i][v] : Math.min(nearest[v], from[i][v]);
+			for(int j=0; j<=i; j++)
+				nearest[nodes[j]] = -1;		//never choose a landmark twice
+		}
+		return new Landmarks(nodes, from, to);
+	}
+
+	/**
+	 * find the node with the largest finite value, skipping the chosen ones marked -1,
+	 * if no finite value is left the first node still at infinity is taken, so on a
+	 * disconnected graph every component is reached before any landmark repeats
+	 * @param d the values
+	 * @return the index of the node, -1 if every node is chosen
+	 */
+	private static int farthest(double[] d)
+	{
+		int best = -1;
+		for(int v=0; v<d.length; v++)
+		{
+			if(d[v] == -1)
+				continue;
+			if(best < 0 || (d[v] != ssp.INFINITY && (d[best] == ssp.INFINITY || d[v] > d[best])))
+				best = v;
+		}
+		return best;
+	}
+
+	public int getNumberOfLandmarks()
+	{
+		return nodes.length;
+	}
+
+	public int[] getNodes()
+	{
+		return nodes;
+	}
+
+	/**
+	 * lower bound of the distance from v to t given by the landmarks,
+	 * a landmark that cannot reach or be reached by either node gives no bound
+	 * @param v is the index of a node
+	 * @param t is the index of the target
+	 * @return the lower bound, at least 0
+	 */
+	public double lowerBound(int v, int t)
+	{
+		double bound = 0;
+		double[] f, b;
+		for(int i=0; i<nodes.length; i++)
+		{
+			f = from[i];
+			b = to[i];
+			if(f[t] != ssp.INFINITY && f[v] != ssp.INFINITY && f[t] - f[v] > bound)	//d(l,t) <= d(l,v) + d(v,t)
+				bound = f[t] - f[v];
+			if(b[v] != ssp.INFINITY && b[t] != ssp.INFINITY && b[v] - b[t] > bound)	//d(v,l) <= d(v,t) + d(t,l)
+				bound = b[v] - b[t];
+		}
+		return bound;
+	}
+
+	/**
+	 * save the landmarks and their tables to a file
+	 * @param filename is the file to be written
+	 * @throws IOException
+	 */
+	public void save(String filename) throws IOException
+	{
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)));
+		try
+		{
+			out.writeInt(MAGIC);
+			out.writeInt(n);
+			out.writeInt(nodes.length);
+			for(int i=0; i<nodes.length; i++)
+			{
+				out.writeInt(nodes[i]);
+				for(int v=0; v<n; v++)
+					out.writeDouble(from[i][v]);
+				for(int v=0; v<n; v++)
+					out.writeDouble(to[i][v]);
+			}
+		}
+		finally
+		{
+			out.close();
+		}
+	}
+
+	/**
+	 * load landmarks saved by save()
+	 * @param filename is the file to be read
+	 * @param g is the graph the landmarks are used with
+	 * @return the landmarks
+	 * @throws IOException if the file is not a landmark file of a graph with the same number of nodes,
+	 * or its landmarks are not nodes of the graph
+	 */
+	public static Landmarks load(String filename, CsrGraph g) throws IOException
+	{
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(filename)));
+		try
+		{
+			if(in.readInt() != MAGIC)
+				throw new IOException(filename + " is not a landmark file");
+			int n = in.readInt();
+			if(n != g.getNumberOfNodes())
+				throw new IOException(filename + " has landmarks of a graph with " + n + " nodes");
+			int k = in.readInt();
+			if(k < 1 || k > n)
+				throw new IOException(filename + " has " + k + " landmarks, expected 1.." + n);
+			int[] nodes = new int[k];
+			double[][] from = new double[k][n];
+			double[][] to = new double[k][n];
+			for(int i=0; i<k; i++)
+			{
+				nodes[i] = in.readInt();
+				if(nodes[i] < 0 || nodes[i] >= n)
+					throw new IOException(filename + " has landmark " + nodes[i] + " out of range 0.." + (n - 1));
+				for(int v=0; v<n; v++)
+					from[i][v] = in.readDouble();
+				for(int v=0; v<n; v++)
+					to[i][v] = in.readDouble();
+			}
+			return new Landmarks(nodes, from, to);
+		}
+		finally
+		{
+			in.close();
+		}
+	}
+}
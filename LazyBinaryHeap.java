@@ -0,0 +1,143 @@
+import java.util.Arrays;
+
+/**
+ * This class implements a binary min heap of (node index, distance) entries on
+ * primitive arrays, without decreaseKey. A node whose distance is reduced is simply
+ * inserted again, so the heap may hold several entries of one node, and the user
+ * skips an extracted entry whose distance is larger than the node's current one.
+ * No handle table is needed, at the price of a heap that may grow beyond the
+ * number of nodes, its largest size is kept as the peak size
+ * @author Min Chen
+ *
+ */
+public class LazyBinaryHeap
+{
+	private int size;
+	private int peak;				//largest size since construction
+	private int[] heap;				//heap[i] is the node index of entry i
+	private double[] distance;		//distance[i] is the key of entry i
+	private SearchMetrics metrics = SearchMetrics.NONE;
+
+	/**
+	 * constructor, create an empty heap
+	 * @param capacity the initial number of entries, the heap grows beyond it if needed
+	 */
+	public LazyBinaryHeap(int capacity)
+	{
+		heap = new int[Math.max(capacity, 1)];
+		distance = new double[Math.max(capacity, 1)];
+	}
+
+	/**
+	 * set the recorder of the heap operations
+	 * @param metrics the recorder, SearchMetrics.NONE to stop recording
+	 */
+	public void setMetrics(SearchMetrics metrics)
+	{
+		this.metrics = metrics;
+	}
+
+	public int getSize()
+	{
+		return size;
+	}
+
+	/**
+	 * get the largest number of entries the heap has held
+	 * @return the peak size
+	 */
+	public int getPeakSize()
+	{
+		return peak;
+	}
+
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	/**
+	 * get the node index of the entry with the minimum distance
+	 * @return the index, -1 if the heap is empty
+	 */
+	public int getMin()
+	{
+		return size > 0 ? heap[0] : -1;
+	}
+
+	/**
+	 * get the minimum distance
+	 * @return the distance of the top entry
+	 */
+	public double getMinDistance()
+	{
+		return distance[0];
+	}
+
+	/**
+	 * insert an entry, the node may already have entries in the heap
+	 * @param index the node index
+	 * @param d the distance
+	 */
+	public void insert(int index, double d)
+	{
+		if(size == heap.length)
+		{
+			heap = Arrays.copyOf(heap, size * 2);
+			distance = Arrays.copyOf(distance, size * 2);
+		}
+		int i = size++, parent;
+		if(size > peak)
+			peak = size;
+		while(i > 0)							//move the hole up until the entry fits in it
+		{
+			parent = (i - 1) >>> 1;
+			if(distance[parent] <= d)
+				break;
+			heap[i] = heap[parent];
+			distance[i] = distance[parent];
+			i = parent;
+		}
+		heap[i] = index;
+		distance[i] = d;
+		metrics.inserted();
+	}
+
+	/**
+	 * remove the entry with the minimum distance
+	 * @return the node index of the removed entry
+	 */
+	public int extractMin()
+	{
+		int min = heap[0];
+		size--;
+		if(size > 0)							//move the hole down until the last entry fits in it
+		{
+			int index = heap[size];
+			double d = distance[size];
+			int i = 0, child;
+			while((child = 2 * i + 1) < size)
+			{
+				if(child + 1 < size && distance[child + 1] < distance[child])
+					child ++;
+				if(distance[child] >= d)
+					break;
+				heap[i] = heap[child];
+				distance[i] = distance[child];
+				i = child;
+			}
+			heap[i] = index;
+			distance[i] = d;
+		}
+		metrics.extracted();
+		return min;
+	}
+
+	/**
+	 * remove all entries from the heap
+	 */
+	public void clear()
+	{
+		size = 0;
+	}
+}
@@ -0,0 +1,175 @@
+/**
+ * This class counts the operations reported to it. An instance must not be
+ * shared between threads, the counters of several threads are summed with add()
+ * @author Min Chen
+ *
+ */
+public class OperationCounters implements SearchMetrics
+{
+	private long inserts;
+	private long decreaseKeys;
+	private long extractMins;
+	private long links;
+	private long cuts;				//decreaseKeys that cut a node from its parent
+	private long cutDepth;			//nodes cut by them, cascading cuts included
+	private int maxCutDepth;
+	private long attempted;			//relaxed edges
+	private long improved;			//relaxed edges that reduced a distance
+	private long searches;
+	private long settled;
+	private int maxSettled;			//most nodes settled by one search
+
+	public void begin(int source)
+	{
+	}
+
+	public void end(int source, int settled)
+	{
+		searches ++;
+		this.settled += settled;
+		maxSettled = Math.max(maxSettled, settled);
+	}
+
+	public void inserted()
+	{
+		inserts ++;
+	}
+
+	public void decreased()
+	{
+		decreaseKeys ++;
+	}
+
+	public void extracted()
+	{
+		extractMins ++;
+	}
+
+	public void linked()
+	{
+		links ++;
+	}
+
+	public void cut(int depth)
+	{
+		cuts ++;
+		cutDepth += depth;
+		maxCutDepth = Math.max(maxCutDepth, depth);
+	}
+
+	public void relaxed(int attempted, int improved)
+	{
+		this.attempted += attempted;
+		this.improved += improved;
+	}
+
+	/**
+	 * add the counters of another instance to this one
+	 * @param c is the other instance
+	 */
+	public void add(OperationCounters c)
+	{
+		inserts += c.inserts;
+		decreaseKeys += c.decreaseKeys;
+		extractMins += c.extractMins;
+		links += c.links;
+		cuts += c.cuts;
+		cutDepth += c.cutDepth;
+		maxCutDepth = Math.max(maxCutDepth, c.maxCutDepth);
+		attempted += c.attempted;
+		improved += c.improved;
+		searches += c.searches;
+		settled += c.settled;
+		maxSettled = Math.max(maxSettled, c.maxSettled);
+	}
+
+	/**
+	 * set every counter to 0
+	 */
+	public void reset()
+	{
+		inserts = decreaseKeys = extractMins = links = 0;
+		cuts = cutDepth = attempted = improved = searches = settled = 0;
+		maxCutDepth = maxSettled = 0;
+	}
+
+	public long getInserts()
+	{
+		return inserts;
+	}
+
+	public long getDecreaseKeys()
+	{
+		return decreaseKeys;
+	}
+
+	public long getExtractMins()
+	{
+		return extractMins;
+	}
+
+	public long getLinks()
+	{
+		return links;
+	}
+
+	public long getCuts()
+	{
+		return cuts;
+	}
+
+	public long getCutDepth()
+	{
+		return cutDepth;
+	}
+
+	public int getMaxCutDepth()
+	{
+		return maxCutDepth;
+	}
+
+	public long getAttempted()
+	{
+		return attempted;
+	}
+
+	public long getImproved()
+	{
+		return improved;
+	}
+
+	public long getSearches()
+	{
+		return searches;
+	}
+
+	public long getSettled()
+	{
+		return settled;
+	}
+
+	public int getMaxSettled()
+	{
+		return maxSettled;
+	}
+
+	/**
+	 * @return the counters, one per line
+	 */
+	@Override
+	public String toString()
+	{
+		return "inserts: " + inserts + "\n"
+				+ "decreaseKeys: " + decreaseKeys + "\n"
+				+ "extractMins: " + extractMins + "\n"
+				+ "links: " + links + "\n"
+				+ "cuts: " + cuts + " (average depth " + ratio(cutDepth, cuts) + ", max depth " + maxCutDepth + ")\n"
+				+ "relaxations: " + attempted + " attempted, " + improved + " successful\n"
+				+ "settled per source: average " + ratio(settled, searches) + ", max " + maxSettled;
+	}
+
+	private static String ratio(long a, long b)
+	{
+		return b == 0 ? "0" : String.format("%.2f", (double) a / b);
+	}
+}
@@ -0,0 +1,329 @@
+import java.util.Arrays;
+
+/**
+ * This class implements a pairing heap. The heap is one tree in which every
+ * node keeps its children in a list: the leftmost child and the next sibling,
+ * plus a back pointer to the previous sibling, or to the parent for the leftmost
+ * child, so a node can be cut in constant time. Insert and decreaseKey link a
+ * single tree with the root, extractMin merges the children of the root in two
+ * passes: pairs from left to right, then the pairs from right to left.
+ * A handle table maps every index to its node, and extracted nodes are kept
+ * for the next insert, so a heap reused for many searches stops allocating
+ * @author Min Chen
+ *
+ */
+public class PairingHeap
+{
+	private Pnode root;
+	private int size;
+	private Pnode[] handles;		//handles[i] is the heap node holding vertex i, null if i is not in the heap
+	private Pnode free;				//removed nodes, linked through their sibling pointers
+	private SearchMetrics metrics = SearchMetrics.NONE;
+
+	/**
+	 * Inner class for nodes of pairing heap
+	 * @author Min Chen
+	 *
+	 */
+	public static class Pnode
+	{
+		private int index;
+		private double distance;
+		private Pnode child;		//leftmost child
+		private Pnode sibling;		//next sibling
+		private Pnode previous;		//previous sibling, the parent for the leftmost child
+
+		public int getIndex()
+		{
+			return index;
+		}
+
+		public double getDistance()
+		{
+			return distance;
+		}
+	}
+
+	/**
+	 * constructor, create an empty heap
+	 */
+	public PairingHeap()
+	{
+		this(16);
+	}
+
+	/**
+	 * constructor, create an empty heap whose handle table
+	 * can hold vertices 0..capacity-1 without growing
+	 * @param capacity the expected number of vertices
+	 */
+	public PairingHeap(int capacity)
+	{
+		handles = new Pnode[Math.max(capacity, 1)];
+	}
+
+	/**
+	 * set the recorder of the heap operations
+	 * @param metrics the recorder, SearchMetrics.NONE to stop recording
+	 */
+	public void setMetrics(SearchMetrics metrics)
+	{
+		this.metrics = metrics;
+	}
+
+	/**
+	 * get the node with the minimum distance
+	 * @return the root, null if the heap is empty
+	 */
+	public Pnode getMin()
+	{
+		return root;
+	}
+
+	public int getSize()
+	{
+		return size;
+	}
+
+	/**
+	 * test whether the node with certain index is in the heap
+	 * @param index the index value of the node
+	 * @return true if the node is in the heap
+	 */
+	public boolean contains(int index)
+	{
+		return index < handles.length && handles[index] != null;
+	}
+
+	/**
+	 * get the heap node holding certain index, without searching the heap
+	 * @param index the index value of the node
+	 * @return the heap node, null if the index is not in the heap
+	 */
+	public Pnode getNode(int index)
+	{
+		return index < handles.length ? handles[index] : null;
+	}
+
+	/**
+	 * insert a new node into the heap, and record it in the handle table
+	 * @param index the new node's index, must not be in the heap
+	 * @param dist the new node's value of distance
+	 * @return the inserted node
+	 */
+	public Pnode insert(int index, double dist)
+	{
+		Pnode x = free;
+		if(x != null)
+			free = x.sibling;
+		else
+			x = new Pnode();
+		x.index = index;
+		x.distance = dist;
+		x.child = x.sibling = x.previous = null;
+		root = root == null ? x : link(root, x);
+		size ++;
+
+		if(index >= handles.length)
+			handles = Arrays.copyOf(handles, Math.max(index + 1, handles.length * 2));
+		handles[index] = x;
+		metrics.inserted();
+		return x;
+	}
+
+	/**
+	 * remove the node with the minimum distance from the heap,
+	 * the node is reused by a later insert, so only its index and distance should be read
+	 * @return the removed node, null if the heap is empty
+	 */
+	public Pnode extractMin()
+	{
+		Pnode z = root;
+		if(z != null)
+		{
+			root = mergePairs(z.child);
+			size --;
+			if(handles[z.index] == z)
+				handles[z.index] = null;
+			z.child = null;
+			z.sibling = free;
+			free = z;
+			metrics.extracted();
+		}
+		return z;
+	}
+
+	/**
+	 * decrease the value of distance in node x to k
+	 * @param x represents a node in the heap
+	 * @param k is the new value of distance in x
+	 */
+	public void decreaseKey(Pnode x, double k)
+	{
+		if(k > x.distance)
+		{
+			System.out.println("Error! New key is greater than current key.");
+			System.exit(1);
+		}
+		x.distance = k;
+		metrics.decreased();
+		if(x != root)
+		{
+			cut(x);
+			root = link(root, x);
+			metrics.cut(1);
+		}
+	}
+
+	/**
+	 * decrease the value of distance of the node with certain index to k,
+	 * the node is located through the handle table
+	 * @param index the index value of a node in the heap
+	 * @param k is the new value of distance
+	 */
+	public void decreaseKey(int index, double k)
+	{
+		decreaseKey(handles[index], k);
+	}
+
+	/**
+	 * delete x from the heap
+	 * @param x represents the node to be deleted
+	 */
+	public void delete(Pnode x)
+	{
+		decreaseKey(x, Double.NEGATIVE_INFINITY);
+		extractMin();
+	}
+
+	/**
+	 * union with another pairing heap, which is empty afterwards,
+	 * its nodes move to the handle table of this heap
+	 * @param h represents another pairing heap
+	 */
+	public void union(PairingHeap h)
+	{
+		if(h.root == null)
+			return;
+		for(Pnode x : h.handles)
+			if(x != null)
+			{
+				if(x.index >= handles.length)
+					handles = Arrays.copyOf(handles, Math.max(x.index + 1, handles.length * 2));
+				handles[x.index] = x;
+			}
+		root = root == null ? h.root : link(root, h.root);
+		size += h.size;
+		h.root = null;
+		h.size = 0;
+		Arrays.fill(h.handles, null);
+	}
+
+	/**
+	 * remove all nodes from the heap, clear their handles and keep the nodes for reuse
+	 */
+	public void clear()
+	{
+		Pnode pending = root, x, last;		//nodes still to be removed, linked through their siblings
+		while(pending != null)
+		{
+			x = pending;
+			pending = x.sibling;
+			if(x.child != null)				//the children are removed later
+			{
+				last = x.child;
+				while(last.sibling != null)
+					last = last.sibling;
+				last.sibling = pending;
+				pending = x.child;
+			}
+			if(handles[x.index] == x)
+				handles[x.index] = null;
+			x.child = x.previous = null;
+			x.sibling = free;
+			free = x;
+		}
+		root = null;
+		size = 0;
+	}
+
+	/**
+	 * make the root with the larger distance the leftmost child of the other
+	 * @param a is the root of a tree
+	 * @param b is the root of another tree
+	 * @return the root of the linked tree
+	 */
+	private Pnode link(Pnode a, Pnode b)
+	{
+		if(b.distance < a.distance)
+		{
+			Pnode t = a;
+			a = b;
+			b = t;
+		}
+		b.sibling = a.child;
+		if(a.child != null)
+			a.child.previous = b;
+		b.previous = a;
+		a.child = b;
+		a.sibling = null;
+		a.previous = null;
+		metrics.linked();
+		return a;
+	}
+
+	/**
+	 * remove x and its subtree from the child list of its parent
+	 * @param x is a node other than the root
+	 */
+	private void cut(Pnode x)
+	{
+		if(x.previous.child == x)			//x is the leftmost child
+			x.previous.child = x.sibling;
+		else
+			x.previous.sibling = x.sibling;
+		if(x.sibling != null)
+			x.sibling.previous = x.previous;
+		x.sibling = null;
+		x.previous = null;
+	}
+
+	/**
+	 * merge a list of trees in two passes: link them in pairs from left to right,
+	 * then link the pairs from right to left into one tree
+	 * @param first is the leftmost tree
+	 * @return the root of the merged tree, null if the list is empty
+	 */
+	private Pnode mergePairs(Pnode first)
+	{
+		Pnode pairs = null;					//linked pairs, the rightmost first, linked through their siblings
+		Pnode a, b;
+		while(first != null)
+		{
+			a = first;
+			b = a.sibling;
+			first = b == null ? null : b.sibling;
+			a.sibling = a.previous = null;
+			if(b != null)
+			{
+				b.sibling = b.previous = null;
+				a = link(a, b);
+			}
+			a.sibling = pairs;
+			pairs = a;
+		}
+		if(pairs == null)
+			return null;
+		Pnode result = pairs;
+		pairs = pairs.sibling;
+		result.sibling = null;
+		while(pairs != null)
+		{
+			a = pairs;
+			pairs = a.sibling;
+			a.sibling = null;
+			result = link(result, a);
+		}
+		return result;
+	}
+}
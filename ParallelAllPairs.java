@@ -0,0 +1,199 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class computes the shortest paths between all pairs of nodes in parallel.
+ * The sources are split into fork-join tasks, idle threads steal the unfinished
+ * halves of the busy ones. Every thread owns a Dijkstra instance (heap and scratch
+ * state), and every source writes only its own row of the distance array.
+ * When the rows are streamed to a sink, the sources are computed in batches of
+ * a few rows per thread, so only those rows are held in memory at a time.
+ * Operation counts are recorded per thread and summed once all rows are done
+ * @author Min Chen
+ *
+ */
+public class ParallelAllPairs
+{
+	private static final int GRAIN = 4;		//a task with at most GRAIN sources is not split further
+	private static final int BATCH = 4 * GRAIN;	//rows per thread held by a streaming computation
+
+	/**
+	 * compute the shortest distances between all pairs of nodes
+	 * @param g is the graph
+	 * @param scheme is the scheme used by every thread
+	 * @param arity is the arity of the d-ary heap scheme
+	 * @param threads is the number of threads
+	 * @return the shortest distance array
+	 */
+	public static double[][] run(CsrGraph g, Scheme scheme, int arity, int threads)
+	{
+		return run(g, scheme, arity, threads, null);
+	}
+
+	/**
+	 * compute the shortest distances between all pairs of nodes and count the operations
+	 * @param g is the graph
+	 * @param scheme is the scheme used by every thread
+	 * @param arity is the arity of the d-ary heap scheme
+	 * @param threads is the number of threads
+	 * @param counters receives the operations of every thread, null to count nothing
+	 * @return the shortest distance array
+	 */
+	public static double[][] run(CsrGraph g, Scheme scheme, int arity, int threads, OperationCounters counters)
+	{
+		int n = g.getNumberOfNodes();
+		double[][] distVec = new double[n][n];
+		List<OperationCounters> recorders = new ArrayList<OperationCounters>();
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try
+		{
+			pool.invoke(new SourceTask(engines(g, scheme, arity, counters == null ? null : recorders), distVec, 0, 0, n));
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+		sum(recorders, counters);
+		return distVec;
+	}
+
+	/**
+	 * compute the shortest distances between all pairs of nodes,
+	 * and hand every row to the sink in increasing order of the source
+	 * @param g is the graph
+	 * @param scheme is the scheme used by every thread
+	 * @param arity is the arity of the d-ary heap scheme
+	 * @param threads is the number of threads
+	 * @param sink receives the rows
+	 * @throws IOException if the sink fails
+	 */
+	public static void stream(CsrGraph g, Scheme scheme, int arity, int threads, RowSink sink) throws IOException
+	{
+		stream(g, scheme, arity, threads, sink, null);
+	}
+
+	/**
+	 * compute the shortest distances between all pairs of nodes, hand every row
+	 * to the sink in increasing order of the source, and count the operations
+	 * @param g is the graph
+	 * @param scheme is the scheme used by every thread
+	 * @param arity is the arity of the d-ary heap scheme
+	 * @param threads is the number of threads
+	 * @param sink receives the rows
+	 * @param counters receives the operations of every thread, null to count nothing
+	 * @throws IOException if the sink fails
+	 */
+	public static void stream(CsrGraph g, Scheme scheme, int arity, int threads, RowSink sink,
+			OperationCounters counters) throws IOException
+	{
+		int n = g.getNumberOfNodes();
+		double[][] rows = new double[Math.min(threads * BATCH, n)][n];
+		List<OperationCounters> recorders = new ArrayList<OperationCounters>();
+		ThreadLocal<Dijkstra> engines = engines(g, scheme, arity, counters == null ? null : recorders);
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		sink.begin(n);
+		try
+		{
+			for(int base=0; base<n; base += rows.length)
+			{
+				int end = Math.min(base + rows.length, n);
+				pool.invoke(new SourceTask(engines, rows, base, base, end));
+				for(int source=base; source<end; source++)
+					sink.row(source, rows[source - base]);
+			}
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+		sum(recorders, counters);
+		sink.end();
+	}
+
+	/**
+	 * add the counters of every thread to the total
+	 * @param recorders the counters of the threads
+	 * @param counters the total, null if nothing is counted
+	 */
+	private static void sum(List<OperationCounters> recorders, OperationCounters counters)
+	{
+		if(counters == null)
+			return;
+		synchronized(recorders)
+		{
+			for(OperationCounters recorder : recorders)
+				counters.add(recorder);
+		}
+	}
+
+	/**
+	 * create the Dijkstra instance of every thread on its first use
+	 * @param g is the graph
+	 * @param scheme is the scheme used by every thread
+	 * @param arity is the arity of the d-ary heap scheme
+	 * @param recorders receives the recorder of every thread, null to record nothing
+	 * @return the per-thread instances
+	 */
+	private static ThreadLocal<Dijkstra> engines(final CsrGraph g, final Scheme scheme, final int arity,
+			final List<OperationCounters> recorders)
+	{
+		return new ThreadLocal<Dijkstra>()
+		{
+			@Override
+			protected Dijkstra initialValue()
+			{
+				Dijkstra dijkstra = new Dijkstra(g, scheme, arity);
+				if(recorders != null)
+				{
+					OperationCounters recorder = new JfrMetrics();
+					dijkstra.setMetrics(recorder);
+					synchronized(recorders)
+					{
+						recorders.add(recorder);
+					}
+				}
+				return dijkstra;
+			}
+		};
+	}
+
+	/**
+	 * Task computing the rows of the sources lo..hi-1,
+	 * the row of a source is rows[source - base]
+	 */
+	private static class SourceTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+		private ThreadLocal<Dijkstra> engines;
+		private double[][] rows;
+		private int base, lo, hi;
+
+		SourceTask(ThreadLocal<Dijkstra> engines, double[][] rows, int base, int lo, int hi)
+		{
+			this.engines = engines;
+			this.rows = rows;
+			this.base = base;
+			this.lo = lo;
+			this.hi = hi;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if(hi - lo <= GRAIN)
+			{
+				Dijkstra dijkstra = engines.get();
+				for(int source=lo; source<hi; source++)
+					dijkstra.shortestPaths(source, rows[source - base]);
+			}
+			else
+			{
+				int mid = (lo + hi) >>> 1;
+				invokeAll(new SourceTask(engines, rows, base, lo, mid), new SourceTask(engines, rows, base, mid, hi));
+			}
+		}
+	}
+}
@@ -0,0 +1,126 @@
+import java.util.SplittableRandom;
+
+/**
+ * This class compares the point-to-point query engines on random graphs:
+ * Dijkstra's algorithm with the Fibonacci heap scheme, bidirectional search,
+ * A* search on landmarks and contraction hierarchies. For every engine it prints
+ * the average query time, the average number of settled nodes (where the engine
+ * reports it) and the speedup over the Fibonacci heap scheme, after the
+ * preprocessing time of the engines that need one.
+ * Then it repeats queries from a few hundred hub sources through a cache of
+ * shortest path trees with a fixed memory budget, and prints its hit ratio
+ * @author Min Chen
+ *
+ */
+public class QueryBenchmark
+{
+	private static final int QUERIES = 1000;
+	private static final int LANDMARKS = 16;
+	private static final int HUBS = 200;
+	private static final long CACHE_BUDGET = 4L << 20;		//bytes
+
+	public static void main(String[] args)
+	{
+		long seed = args.length > 0 ? Long.parseLong(args[0]) : System.nanoTime();
+		SplittableRandom gen = new SplittableRandom(seed);
+		CsrGraph g;
+		int[] sources = new int[QUERIES];
+		int[] targets = new int[QUERIES];
+		for(int n=1000; n<=4000; n = n * 2)
+		{
+			g = new GraphGenerator(seed + n, 1000).uniform(n, 4L * n);		//4 edges per node
+			for(int q=0; q<QUERIES; q++)
+			{
+				sources[q] = gen.nextInt(n);
+				targets[q] = gen.nextInt(n);
+			}
+
+			Dijkstra dijkstra = new Dijkstra(g, Scheme.FHEAP);
+			BidirectionalDijkstra bd = new BidirectionalDijkstra(g);
+			long time = System.currentTimeMillis();
+			AltDijkstra alt = new AltDijkstra(g, Landmarks.select(g, LANDMARKS));
+			long altTime = System.currentTimeMillis() - time;
+			ContractionHierarchy ch = new ContractionHierarchy(g);
+
+			System.out.println(n + " nodes, " + g.getNumberOfEdges() + " edges, " 
+					+ "ALT preprocessing " + altTime + " ms, "
+					+ "CH preprocessing " + ch.getPreprocessingTime() + " ms with " + ch.getShortcuts() + " shortcuts"
+					+ (ch.hasHierarchy() ? "" : ", abandoned for bidirectional search"));
+			System.out.println("Engine\t\t" + "Query (us)\t" + "Settled\t\t" + "Speedup");
+
+			double[] expected = new double[QUERIES];
+			long settled;
+			double base;
+
+			time = System.nanoTime();
+			for(int q=0; q<QUERIES; q++)
+				expected[q] = dijkstra.distance(sources[q], targets[q]);
+			base = (System.nanoTime() - time) / 1000.0 / QUERIES;
+			System.out.println("F-heap\t\t" + String.format("%.1f", base) + "\t\t-\t\t1.0x");
+
+			settled = 0;
+			time = System.nanoTime();
+			for(int q=0; q<QUERIES; q++)
+			{
+				check(expected[q], bd.distance(sources[q], targets[q]));
+				settled += bd.getSettled();
+			}
+			print("Bidirectional", time, settled, base);
+
+			settled = 0;
+			time = System.nanoTime();
+			for(int q=0; q<QUERIES; q++)
+			{
+				check(expected[q], alt.distance(sources[q], targets[q]));
+				settled += alt.getSettled();
+			}
+			print("ALT\t", time, settled, base);
+
+			settled = 0;
+			time = System.nanoTime();
+			for(int q=0; q<QUERIES; q++)
+			{
+				check(expected[q], ch.distance(sources[q], targets[q]));
+				settled += ch.getSettled();
+			}
+			print("CH\t", time, settled, base);
+
+			int[] hubs = new int[HUBS];
+			for(int h=0; h<HUBS; h++)
+				hubs[h] = gen.nextInt(n);
+			for(int q=0; q<QUERIES; q++)
+			{
+				sources[q] = hubs[gen.nextInt(HUBS)];
+				targets[q] = gen.nextInt(n);
+			}
+			time = System.nanoTime();
+			for(int q=0; q<QUERIES; q++)
+				expected[q] = dijkstra.distance(sources[q], targets[q]);
+			base = (System.nanoTime() - time) / 1000.0 / QUERIES;
+			ShortestPathCache cache = new ShortestPathCache(g, Scheme.FHEAP, CACHE_BUDGET);
+			time = System.nanoTime();
+			for(int q=0; q<QUERIES; q++)
+				check(expected[q], cache.distance(sources[q], targets[q]));
+			double query = (System.nanoTime() - time) / 1000.0 / QUERIES;
+			System.out.println("Hub queries from " + HUBS + " sources: F-heap " + String.format("%.1f", base) + " us, cached "
+					+ String.format("%.1f", query) + " us (" + String.format("%.1fx", base / query) + "), " + cache);
+			System.out.println();
+		}
+	}
+
+	private static void print(String name, long start, long settled, double base)
+	{
+		double query = (System.nanoTime() - start) / 1000.0 / QUERIES;
+		System.out.println(name + "\t" + String.format("%.1f", query) + "\t\t" + settled / QUERIES + "\t\t"
+				+ String.format("%.1fx", base / query));
+	}
+
+	private static void check(double expected, double actual)
+	{
+		if(expected != actual)
+		{
+			System.out.println("Error! Distance mismatch, " + expected + " expected but " + actual + " found.");
+			System.exit(1);
+		}
+	}
+}
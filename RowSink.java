@@ -0,0 +1,29 @@
+import java.io.IOException;
+
+/**
+ * This interface receives the shortest distance rows of an all-pairs computation
+ * one source at a time, in increasing order of the source. The row array is reused
+ * once row() returns, so a sink has to copy whatever it wants to keep
+ * @author Min Chen
+ *
+ */
+public interface RowSink
+{
+	/**
+	 * called once before the first row
+	 * @param n is the number of nodes, every row has n distances
+	 */
+	void begin(int n) throws IOException;
+
+	/**
+	 * called once for every source
+	 * @param source is the index of the source
+	 * @param dist is the shortest distance from the source to every node
+	 */
+	void row(int source, double[] dist) throws IOException;
+
+	/**
+	 * called once after the last row
+	 */
+	void end() throws IOException;
+}
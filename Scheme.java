@@ -0,0 +1,59 @@
+/**
+ * This enum lists the schemes used to implement the Dijsktra's algorithm,
+ * together with the command line flag, the name and the random mode column of each scheme
+ * @author Min Chen
+ *
+ */
+public enum Scheme
+{
+	SIMPLE("-is", "Simple scheme", "Simple scheme"),
+	FHEAP("-if", "Fibonacci heap scheme", "F-heap scheme"),
+	BHEAP("-ib", "Binomial heap scheme", "B-heap scheme"),
+	DHEAP("-id", "D-ary heap scheme", "D-heap scheme"),
+	BUCKET("-iq", "Bucket queue scheme", "Bucket scheme"),
+	LAZY("-il", "Lazy binary heap scheme", "Lazy heap scheme"),
+	PAIRING("-ip", "Pairing heap scheme", "P-heap scheme"),
+	FLOYD("-iw", "Floyd-Warshall scheme", "Floyd scheme");
+	
+	private String flag;
+	private String name;
+	private String column;
+	
+	private Scheme(String flag, String name, String column)
+	{
+		this.flag = flag;
+		this.name = name;
+		this.column = column;
+	}
+	
+	public String getFlag()
+	{
+		return flag;
+	}
+	
+	public String getName()
+	{
+		return name;
+	}
+	
+	public String getColumn()
+	{
+		return column;
+	}
+	
+	/**
+	 * find the scheme selected by a command line flag, only the flag of
+	 * the d-ary heap scheme may carry a number as suffix, the arity, e.g. -id8
+	 * @param s is the command line flag
+	 * @return the scheme, null if no scheme has this flag
+	 */
+	public static Scheme fromFlag(String s)
+	{
+		for(Scheme scheme : values())
+			if(s.equals(scheme.getFlag()))
+				return scheme;
+		if(s.matches("-id\\d{1,9}"))
+			return DHEAP;
+		return null;
+	}
+}
@@ -0,0 +1,50 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of one search from a source, committed by JfrMetrics.
+ * It is recorded only while a recording enables it, e.g. with
+ * -XX:StartFlightRecording
+ * @author Min Chen
+ *
+ */
+@Name("ssp.Search")
+@Label("Shortest Path Search")
+@Category("Shortest Paths")
+@Description("Heap operations and relaxations of one single-source search")
+class SearchEvent extends Event
+{
+	@Label("Source")
+	int source;
+
+	@Label("Settled Nodes")
+	int settled;
+
+	@Label("Inserts")
+	long inserts;
+
+	@Label("Decrease Keys")
+	long decreaseKeys;
+
+	@Label("Extract Mins")
+	long extractMins;
+
+	@Label("Links")
+	long links;
+
+	@Label("Cuts")
+	long cuts;
+
+	@Label("Cut Depth")
+	@Description("Nodes cut, cascading cuts included")
+	long cutDepth;
+
+	@Label("Relaxations Attempted")
+	long attempted;
+
+	@Label("Relaxations Successful")
+	long improved;
+}
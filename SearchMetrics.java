@@ -0,0 +1,70 @@
+/**
+ * This interface receives the operations of a shortest path search and of its heap.
+ * Heaps and Dijkstra instances report to NONE unless another recorder is set, its
+ * methods are empty so the JIT inlines the calls away and the counting costs nothing
+ * @author Min Chen
+ *
+ */
+public interface SearchMetrics
+{
+	/**
+	 * the recorder that ignores every operation
+	 */
+	SearchMetrics NONE = new SearchMetrics()
+	{
+		public void begin(int source) {}
+		public void end(int source, int settled) {}
+		public void inserted() {}
+		public void decreased() {}
+		public void extracted() {}
+		public void linked() {}
+		public void cut(int depth) {}
+		public void relaxed(int attempted, int improved) {}
+	};
+
+	/**
+	 * a search from a source starts
+	 * @param source is the index of the source
+	 */
+	void begin(int source);
+
+	/**
+	 * the search from a source is finished
+	 * @param source is the index of the source
+	 * @param settled is the number of nodes whose distance became final
+	 */
+	void end(int source, int settled);
+
+	/**
+	 * a node was inserted into the heap
+	 */
+	void inserted();
+
+	/**
+	 * the key of a node in the heap was decreased
+	 */
+	void decreased();
+
+	/**
+	 * the node with the minimum key was removed from the heap
+	 */
+	void extracted();
+
+	/**
+	 * two trees of the heap were linked
+	 */
+	void linked();
+
+	/**
+	 * a decreaseKey cut nodes from their parents
+	 * @param depth is the number of cuts, the node itself and its cascading ancestors
+	 */
+	void cut(int depth);
+
+	/**
+	 * the edges leaving a settled node were relaxed
+	 * @param attempted is the number of edges
+	 * @param improved is the number of edges that reduced the distance of their end
+	 */
+	void relaxed(int attempted, int improved);
+}
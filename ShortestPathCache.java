@@ -0,0 +1,274 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * This class keeps the shortest path trees of recently queried sources, so repeated
+ * queries from the same sources are answered without a search. A tree is a distance
+ * row and a predecessor row of primitives, computed by the scheme of the cache.
+ * The trees are evicted in least recently used order once their size exceeds the
+ * memory budget. Every tree carries the version stamp of the graph it was computed
+ * on, and setGraph() drops the trees of the previous graph, so a rebuilt graph never
+ * gets an old answer.
+ * Any number of threads may query the cache at once. The lookup holds the lock for
+ * a map access only, a missing tree is computed outside the lock on an engine of the
+ * calling thread, and a tree is never modified once computed
+ * @author Min Chen
+ *
+ */
+public class ShortestPathCache
+{
+	private static final long ENTRY_OVERHEAD = 96;	//object headers, array headers and map node of a tree, roughly
+
+	private Scheme scheme;
+	private long budget;
+	private volatile CsrGraph graph;
+	private LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<Integer, Entry>(16, 0.75f, true);	//in access order
+	private long bytes;							//size of the trees in the map, guarded by entries like the counts
+	private long hits;
+	private long misses;
+	private ThreadLocal<Dijkstra> engines = new ThreadLocal<Dijkstra>();
+
+	/**
+	 * Inner class for a cached shortest path tree
+	 * @author Min Chen
+	 *
+	 */
+	public static class Entry
+	{
+		private int source;
+		private long version;
+		private double[] dist;
+		private int[] pred;
+
+		private Entry(int source, long version, double[] dist, int[] pred)
+		{
+			this.source = source;
+			this.version = version;
+			this.dist = dist;
+			this.pred = pred;
+		}
+
+		public int getSource()
+		{
+			return source;
+		}
+
+		/**
+		 * get the version stamp of the graph the tree was computed on
+		 * @return the version
+		 */
+		public long getVersion()
+		{
+			return version;
+		}
+
+		/**
+		 * get the shortest distance from the source to a node
+		 * @param v is the index of the node
+		 * @return the distance, infinity if v is unreachable
+		 */
+		public double getDistance(int v)
+		{
+			return dist[v];
+		}
+
+		/**
+		 * get the predecessor of a node on its shortest path
+		 * @param v is the index of the node
+		 * @return the predecessor, -1 for the source and unreachable nodes
+		 */
+		public int getPredecessor(int v)
+		{
+			return pred[v];
+		}
+
+		/**
+		 * get a shortest path from the source to a node
+		 * @param v is the index of the node
+		 * @return the nodes of the path from the source to v, empty if v is unreachable
+		 */
+		public int[] path(int v)
+		{
+			return Dijkstra.path(pred, source, v);
+		}
+
+		/**
+		 * get the memory taken by the tree
+		 * @return the number of bytes
+		 */
+		public long getBytes()
+		{
+			return ENTRY_OVERHEAD + 8L * dist.length + 4L * pred.length;
+		}
+	}
+
+	/**
+	 * constructor, create an empty cache
+	 * @param g is the graph
+	 * @param scheme is the scheme that computes a missing tree
+	 * @param budget is the largest number of bytes taken by the trees
+	 */
+	public ShortestPathCache(CsrGraph g, Scheme scheme, long budget)
+	{
+		this.graph = g;
+		this.scheme = scheme;
+		this.budget = budget;
+	}
+
+	public CsrGraph getGraph()
+	{
+		return graph;
+	}
+
+	/**
+	 * replace the graph, e.g. by a rebuilt one, and drop the trees of the old graph
+	 * @param g is the new graph
+	 */
+	public void setGraph(CsrGraph g)
+	{
+		synchronized(entries)
+		{
+			graph = g;
+			entries.clear();
+			bytes = 0;
+		}
+	}
+
+	/**
+	 * get the shortest path tree of a source, computed now if it is not cached
+	 * @param source is the index of the source
+	 * @return the tree
+	 */
+	public Entry get(int source)
+	{
+		CsrGraph g = graph;
+		synchronized(entries)
+		{
+			Entry entry = entries.get(source);
+			if(entry != null && entry.version == g.getVersion())
+			{
+				hits ++;
+				return entry;
+			}
+			misses ++;
+		}
+
+		Dijkstra dijkstra = engines.get();
+		if(dijkstra == null || dijkstra.getGraph() != g)		//first query of this thread, or the graph was replaced
+		{
+			dijkstra = new Dijkstra(g, scheme);
+			engines.set(dijkstra);
+		}
+		double[] dist = new double[g.getNumberOfNodes()];
+		int[] pred = new int[g.getNumberOfNodes()];
+		dijkstra.shortestPaths(source, dist, pred);
+		Entry entry = new Entry(source, g.getVersion(), dist, pred);
+
+		synchronized(entries)
+		{
+			if(graph != g)							//the graph was replaced during the search
+				return entry;
+			Entry old = entries.put(source, entry);
+			if(old != null)							//another thread computed the same tree
+				bytes -= old.getBytes();
+			bytes += entry.getBytes();
+			Iterator<Entry> lru = entries.values().iterator();
+			while(bytes > budget && lru.hasNext())	//evict from the least recently used
+			{
+				bytes -= lru.next().getBytes();
+				lru.remove();
+			}
+		}
+		return entry;
+	}
+
+	/**
+	 * get a shortest path from a source to a target through the tree of the source
+	 * @param source is the index of the source
+	 * @param target is the index of the target
+	 * @return the nodes of the path from the source to the target, empty if the target is unreachable
+	 */
+	public int[] path(int source, int target)
+	{
+		return get(source).path(target);
+	}
+
+	/**
+	 * get the shortest distance from a source to a target through the tree of the source
+	 * @param source is the index of the source
+	 * @param target is the index of the target
+	 * @return the distance, infinity if the target is unreachable
+	 */
+	public double distance(int source, int target)
+	{
+		return get(source).getDistance(target);
+	}
+
+	public long getBudget()
+	{
+		return budget;
+	}
+
+	/**
+	 * get the memory taken by the cached trees
+	 * @return the number of bytes
+	 */
+	public long getBytes()
+	{
+		synchronized(entries)
+		{
+			return bytes;
+		}
+	}
+
+	/**
+	 * get the number of cached trees
+	 * @return the number of trees
+	 */
+	public int getSize()
+	{
+		synchronized(entries)
+		{
+			return entries.size();
+		}
+	}
+
+	public long getHits()
+	{
+		synchronized(entries)
+		{
+			return hits;
+		}
+	}
+
+	public long getMisses()
+	{
+		synchronized(entries)
+		{
+			return misses;
+		}
+	}
+
+	/**
+	 * get the share of the queries answered from the cache
+	 * @return the hit ratio, 0 before the first query
+	 */
+	public double getHitRatio()
+	{
+		synchronized(entries)
+		{
+			return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		synchronized(entries)
+		{
+			return "cache: " + entries.size() + " trees, " + bytes + " of " + budget + " bytes, "
+					+ hits + " hits, " + misses + " misses, hit ratio "
+					+ String.format("%.2f", hits + misses == 0 ? 0 : (double) hits / (hits + misses));
+		}
+	}
+}
@@ -0,0 +1,133 @@
+/**
+ * This class decomposes a directed graph into its strongly connected components
+ * with Tarjan's algorithm in O(n+m) time. The depth-first search keeps its own
+ * stack of nodes and edge positions instead of recursing, so graphs with millions
+ * of nodes do not overflow the thread stack. Components are numbered in the order
+ * they are completed, which is a reverse topological order of the condensed graph
+ * @author Min Chen
+ *
+ */
+public class StronglyConnectedComponents
+{
+	private int[] component;			//component of every node
+	private int[] sizes;				//number of nodes of every component
+	private int count;					//number of components
+
+	/**
+	 * constructor, decompose the graph
+	 * @param g is the graph
+	 */
+	public StronglyConnectedComponents(CsrGraph g)
+	{
+		int n = g.getNumberOfNodes();
+		int[] offsets = g.getOffsets();
+		int[] targets = g.getTargets();
+		int[] index = new int[n];			//discovery order + 1, 0 if not visited yet
+		int[] low = new int[n];				//smallest discovery order reachable through the search tree
+		int[] next = new int[n];			//next edge to follow from every node on the search path
+		int[] path = new int[n];			//search path, the recursion stack
+		int[] stack = new int[n];			//nodes visited but not yet assigned to a component
+		boolean[] onStack = new boolean[n];
+		int depth, top = 0, order = 0;
+		int u, v, w;
+
+		component = new int[n];
+		sizes = new int[Math.max(n, 1)];
+		for(int root=0; root<n; root++)
+		{
+			if(index[root] != 0)
+				continue;
+			index[root] = low[root] = ++order;
+			next[root] = offsets[root];
+			stack[top++] = root;
+			onStack[root] = true;
+			path[0] = root;
+			depth = 1;
+			while(depth > 0)
+			{
+				u = path[depth - 1];
+				if(next[u] < offsets[u + 1])		//follow the next edge of u
+				{
+					v = targets[next[u]++];
+					if(index[v] == 0)
+					{
+						index[v] = low[v] = ++order;
+						next[v] = offsets[v];
+						stack[top++] = v;
+						onStack[v] = true;
+						path[depth++] = v;
+					}
+					else if(onStack[v] && index[v] < low[u])
+						low[u] = index[v];
+					continue;
+				}
+
+				depth --;							//every edge of u is done, return to its parent
+				if(depth > 0 && low[u] < low[path[depth - 1]])
+					low[path[depth - 1]] = low[u];
+				if(low[u] == index[u])				//u is the root of a component
+				{
+					do
+					{
+						w = stack[--top];
+						onStack[w] = false;
+						component[w] = count;
+						sizes[count] ++;
+					}while(w != u);
+					count ++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * get the number of strongly connected components
+	 * @return the number of components
+	 */
+	public int getCount()
+	{
+		return count;
+	}
+
+	/**
+	 * get the component of a node
+	 * @param v is the index of the node
+	 * @return the component, between 0 and getCount()-1
+	 */
+	public int getComponent(int v)
+	{
+		return component[v];
+	}
+
+	/**
+	 * get the number of nodes of a component
+	 * @param c is the component
+	 * @return the number of nodes
+	 */
+	public int getSize(int c)
+	{
+		return sizes[c];
+	}
+
+	/**
+	 * get the component with the most nodes
+	 * @return the component, -1 if the graph has no node
+	 */
+	public int getLargest()
+	{
+		int largest = -1;
+		for(int c=0; c<count; c++)
+			if(largest < 0 || sizes[c] > sizes[largest])
+				largest = c;
+		return largest;
+	}
+
+	/**
+	 * test whether every node can reach every other node
+	 * @return true if there is a single component
+	 */
+	public boolean isStronglyConnected()
+	{
+		return count <= 1;
+	}
+}
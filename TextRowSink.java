@@ -0,0 +1,71 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+/**
+ * This class writes the shortest distance rows as the tab separated table
+ * printed by ssp, unreachable nodes are shown as "?"
+ * @author Min Chen
+ *
+ */
+public class TextRowSink implements RowSink
+{
+	private Writer out;
+	private boolean close;
+
+	/**
+	 * constructor, the stream is flushed but not closed at the end
+	 * @param out is the stream the table is written to
+	 */
+	public TextRowSink(OutputStream out)
+	{
+		this(new OutputStreamWriter(out), false);
+	}
+
+	/**
+	 * constructor
+	 * @param out is the writer the table is written to
+	 * @param close whether the writer is closed at the end
+	 */
+	public TextRowSink(Writer out, boolean close)
+	{
+		this.out = new BufferedWriter(out, 1 << 16);
+		this.close = close;
+	}
+
+	public void begin(int n) throws IOException
+	{
+		out.write("node \t");
+		for(int i=0; i<n; i++)
+		{
+			out.write(Integer.toString(i));
+			out.write('\t');
+		}
+		out.write('\n');
+	}
+
+	public void row(int source, double[] dist) throws IOException
+	{
+		out.write(Integer.toString(source));
+		out.write('\t');
+		for(double d : dist)
+		{
+			if(d == Double.POSITIVE_INFINITY)
+				out.write('?');
+			else
+				out.write(Double.toString(d));
+			out.write('\t');
+		}
+		out.write('\n');
+	}
+
+	public void end() throws IOException
+	{
+		if(close)
+			out.close();
+		else
+			out.flush();
+	}
+}
@@ -0,0 +1,178 @@
+package dijkstra;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class measures the heaps alone on mixes of the operations Dijkstra's
+ * algorithm performs: every node is inserted, a share of them get a smaller
+ * key, and the heap is emptied by extractMin. The keys and the decreased nodes
+ * are drawn once per trial from a fixed seed, and every invocation leaves the
+ * heap empty so the same heap is reused
+ * @author Min Chen
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class HeapOperations
+{
+	@Param({"1000", "100000"})
+	public int size;
+
+	@Param({"0", "1", "4"})			//decreaseKey operations per inserted node, spread over the extractions
+	public int decreases;
+
+	@Param({"42"})
+	public long seed;
+
+	private double[] keys;			//initial key of every node, in size..2*size
+	private int[] victims;			//node of every decreaseKey
+	private double[] fractions;		//its new key is current - fraction * (current - last extracted)
+	private double[] current;		//current key of every node during an invocation
+	private FibonacciHeap fheap;
+	private BinomialHeap bheap;
+	private DaryHeap dheap;
+	private PairingHeap pheap;
+
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		SplittableRandom random = new SplittableRandom(seed);
+		keys = new double[size];
+		for(int i=0; i<size; i++)
+			keys[i] = size + random.nextInt(size);
+		int count = size * decreases;
+		victims = new int[count];
+		fractions = new double[count];
+		for(int i=0; i<count; i++)
+		{
+			victims[i] = random.nextInt(size);
+			fractions[i] = random.nextDouble();
+		}
+		current = new double[size];
+		fheap = new FibonacciHeap(size);
+		bheap = new BinomialHeap(size);
+		dheap = new DaryHeap(ssp.DHEAP_ARITY, size);
+		pheap = new PairingHeap(size);
+	}
+
+	@Benchmark
+	public double fibonacciHeap()
+	{
+		double sum = 0, last;
+		int v, d = 0;
+		System.arraycopy(keys, 0, current, 0, size);
+		for(int i=0; i<size; i++)
+			fheap.insert(i, keys[i]);
+		for(int i=0; i<size; i++)
+		{
+			last = fheap.extractMin().getDistcance();
+			sum += last;
+			for(int j=0; j<decreases; j++, d++)		//decrease the nodes still in the heap
+			{
+				v = victims[d];
+				if(fheap.contains(v))
+				{
+					current[v] -= fractions[d] * (current[v] - last);
+					fheap.decreaseKey(v, current[v]);
+				}
+			}
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public double binomialHeap()
+	{
+		double sum = 0, last;
+		int v, d = 0;
+		System.arraycopy(keys, 0, current, 0, size);
+		for(int i=0; i<size; i++)
+			bheap.insert(i, keys[i]);
+		for(int i=0; i<size; i++)
+		{
+			last = bheap.extractMin().getDistance();
+			sum += last;
+			for(int j=0; j<decreases; j++, d++)
+			{
+				v = victims[d];
+				if(bheap.contains(v))
+				{
+					current[v] -= fractions[d] * (current[v] - last);
+					bheap.decreaseKey(v, current[v]);
+				}
+			}
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public double daryHeap()
+	{
+		double sum = 0, last;
+		int v, d = 0;
+		System.arraycopy(keys, 0, current, 0, size);
+		for(int i=0; i<size; i++)
+			dheap.insert(i, keys[i]);
+		for(int i=0; i<size; i++)
+		{
+			last = dheap.getMinDistance();
+			sum += last;
+			dheap.extractMin();
+			for(int j=0; j<decreases; j++, d++)
+			{
+				v = victims[d];
+				if(dheap.contains(v))
+				{
+					current[v] -= fractions[d] * (current[v] - last);
+					dheap.decreaseKey(v, current[v]);
+				}
+			}
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public double pairingHeap()
+	{
+		double sum = 0, last;
+		int v, d = 0;
+		PairingHeap.Pnode x;
+		System.arraycopy(keys, 0, current, 0, size);
+		for(int i=0; i<size; i++)
+			pheap.insert(i, keys[i]);
+		for(int i=0; i<size; i++)
+		{
+			last = pheap.extractMin().getDistance();
+			sum += last;
+			for(int j=0; j<decreases; j++, d++)
+			{
+				v = victims[d];
+				x = pheap.getNode(v);
+				if(x != null)
+				{
+					current[v] -= fractions[d] * (current[v] - last);
+					pheap.decreaseKey(x, current[v]);
+				}
+			}
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,125 @@
+package dijkstra;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class measures the all-pairs computation of every scheme, on the graphs
+ * swept by the random mode and on the other families of the graph generator.
+ * The graphs are generated once per trial from a fixed seed, so every fork
+ * and every release measures the same graphs
+ * @author Min Chen
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SchemeBenchmark
+{
+	@Param({"uniform", "grid", "powerlaw"})
+	public String shape;
+
+	@Param({"100", "300", "500"})
+	public int n;
+
+	@Param({"0.1", "0.5", "1.0"})		//ratio of edges to n*(n-1), the grid ignores it
+	public double density;
+
+	@Param({"42"})
+	public long seed;
+
+	private CsrGraph g;
+
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		g = graph(shape, n, density, seed);
+	}
+
+	/**
+	 * generate a graph of the given family
+	 * @param shape is "uniform", "grid" or "powerlaw"
+	 * @param n is the number of nodes, rounded down to a square for the grid
+	 * @param density is the ratio of edges to n*(n-1)
+	 * @param seed is the seed of the generator
+	 * @return the graph
+	 */
+	static CsrGraph graph(String shape, int n, double density, long seed)
+	{
+		GraphGenerator generator = new GraphGenerator(seed, 1000);
+		long m = (long) (n * (n - 1L) * density);
+		if(shape.equals("uniform"))
+			return generator.uniform(n, m);
+		if(shape.equals("grid"))
+		{
+			int side = (int) Math.sqrt(n);
+			return generator.grid(side, side);
+		}
+		if(shape.equals("powerlaw"))
+			return generator.powerLaw(n, m, 2.5);
+		throw new IllegalArgumentException("unknown graph shape " + shape);
+	}
+
+	@Benchmark
+	public double[][] simpleScheme()
+	{
+		return ssp.simpleScheme(g);
+	}
+
+	@Benchmark
+	public double[][] fheapScheme()
+	{
+		return ssp.fheapScheme(g);
+	}
+
+	@Benchmark
+	public double[][] bheapScheme()
+	{
+		return ssp.bheapScheme(g);
+	}
+
+	@Benchmark
+	public double[][] dheapScheme()
+	{
+		return ssp.dheapScheme(g, ssp.DHEAP_ARITY);
+	}
+
+	@Benchmark
+	public double[][] bucketScheme()
+	{
+		return ssp.bucketScheme(g);
+	}
+
+	@Benchmark
+	public double[][] lazyScheme()
+	{
+		return ssp.lazyScheme(g);
+	}
+
+	@Benchmark
+	public double[][] pheapScheme()
+	{
+		return ssp.pheapScheme(g);
+	}
+
+	@Benchmark
+	public double[][] floydScheme()
+	{
+		return ssp.floydScheme(g);
+	}
+}
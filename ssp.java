@@ -1,13 +1,11 @@
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.util.HashSet;
-import java.util.Scanner;
-import java.util.Random;
-import java.util.Set;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
 
 /**
  * This project uses Dijsktra's algorithm to compute the shortest paths
- * to different nodes from a source. Three different schemes are implemented
+ * to different nodes from a source. Several schemes, listed by Scheme, are implemented
  * to achieve the Dijsktra's algorithm. Every node in the directed graph can be the 
  * source. So we can obtain the shortest path between arbitrary pair of nodes
  * in the directed graph.
@@ -18,258 +16,480 @@ import java.util.Set;
 public class ssp 
 { 
 	public static final double INFINITY = Double.POSITIVE_INFINITY;
+	public static final int DHEAP_ARITY = 4;		//arity of the d-ary heap scheme unless given after -id
+	public static final int BUCKET_RANGE = 1 << 16;	//largest weight of the bucket queue scheme, above it the d-ary heap is used
 	
-	public static void main(String[] args) throws FileNotFoundException
+	public static void main(String[] args) throws IOException
 	{
-		Edge[] edges = null;
-		Gnode[] g;
+		CsrGraph g;
 		int n;
 	
 		if(args[0].equals("-r"))			//random mode
 		{
 			System.out.println("Random mode:");
-			randomMode();
+			randomMode(args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime());
+		}
+		
+		else if(args[0].equals("-g"))		//generate a random graph and save it as a binary graph snapshot
+		{
+			g = generate(args);
+			GraphSnapshot.save(g, args[args.length - 1]);
+			System.out.println("Saved " + g.getNumberOfNodes() + " nodes and " + g.getNumberOfEdges() + " edges to " + args[args.length - 1]);
+		}
+		
+		else if(args[0].equals("-c"))		//convert an edge list file to a binary graph snapshot
+		{
+			g = GraphLoader.load(args[1]);
+			GraphSnapshot.save(g, args[2]);
+			System.out.println("Saved " + g.getNumberOfNodes() + " nodes and " + g.getNumberOfEdges() + " edges to " + args[2]);
 		}
 		
 		else
 		{
-			if(args.length == 1)		 	//the graph info is input by the user
+			Scheme scheme = Scheme.fromFlag(args[0]);
+			if(scheme == null)
+			{
+				System.out.println("Error! Unknown scheme " + args[0] + ".");
+				System.exit(1);
+			}
+			//-id4 or -id8 gives the arity of the d-ary heap scheme
+			int arity = scheme == Scheme.DHEAP && args[0].length() > 3 ? Integer.parseInt(args[0].substring(3)) : DHEAP_ARITY;
+			if(arity < 2)
+			{
+				System.out.println("Error! The arity of the d-ary heap scheme must be at least 2.");
+				System.exit(1);
+			}
+			
+			String filename = null;
+			String output = null;			//file of the distance rows, opened only when rows are written
+			boolean binary = false;
+			int threads = 1;
+			int source = -1, target = -1;
+			boolean bidirectional = false;
+			boolean hierarchy = false;
+			boolean deltaStepping = false;
+			double delta = 0;
+			int landmarkCount = 0;
+			String landmarkFile = null;
+			OperationCounters counters = null;
+			boolean matrix = false;
+			boolean route = false;
+			for(int i=1; i<args.length; i++)
+			{
+				if(args[i].equals("-p"))		//parallel over sources, one thread per core
+					threads = Runtime.getRuntime().availableProcessors();
+				else if(args[i].equals("-t"))	//parallel over sources with the given number of threads
+				{
+					if(i + 1 >= args.length || !args[i + 1].matches("\\d{1,9}") || (threads = Integer.parseInt(args[++i])) < 1)
+					{
+						System.out.println("Error! -t needs a number of threads of at least 1.");
+						System.exit(1);
+					}
+				}
+				else if(args[i].equals("-o") || args[i].equals("-ob"))	//write the distance rows to a file, in binary form with -ob
+				{
+					if(i + 1 >= args.length)
+					{
+						System.out.println("Error! " + args[i] + " needs a file name.");
+						System.exit(1);
+					}
+					binary = args[i].equals("-ob");
+					output = args[++i];
+				}
+				else if(args[i].equals("-m"))	//count the heap operations and relaxations, and record them as JFR events
+					counters = new JfrMetrics();
+				else if(args[i].equals("-mx"))	//the input is an adjacency matrix instead of an edge list
+					matrix = true;
+				else if(args[i].equals("-path"))	//print the shortest path of a point-to-point query
+					route = true;
+				else if(args[i].equals("-bd"))	//answer a point-to-point query with bidirectional search
+					bidirectional = true;
+				else if(args[i].equals("-ds"))	//answer a single-source query with parallel delta-stepping, optionally with delta
+				{
+					deltaStepping = true;
+					if(i + 1 < args.length && args[i + 1].matches("\\d+(\\.\\d*)?"))
+						delta = Double.parseDouble(args[++i]);
+				}
+				else if(args[i].equals("-ch"))	//answer a point-to-point query with contraction hierarchies
+					hierarchy = true;
+				else if(args[i].equals("-alt"))	//answer a point-to-point query with A* search on k landmarks
+				{
+					if(i + 1 >= args.length || !args[i + 1].matches("\\d{1,9}") || (landmarkCount = Integer.parseInt(args[++i])) < 1)
+					{
+						System.out.println("Error! -alt needs a number of landmarks of at least 1.");
+						System.exit(1);
+					}
+				}
+				else if(args[i].equals("-lm"))	//landmark file, loaded if it exists, otherwise written after preprocessing
+					landmarkFile = args[++i];
+				else if(args[i].equals("-q"))	//query the distances from one source, or to one target
+				{
+					if(i + 1 >= args.length || !args[i + 1].matches("\\d{1,9}"))
+					{
+						System.out.println("Error! -q needs a non-negative source index.");
+						System.exit(1);
+					}
+					source = Integer.parseInt(args[++i]);
+					if(i + 1 < args.length && args[i + 1].matches("-?\\d+"))	//a negative number is a bad target, not a file
+					{
+						if(!args[i + 1].matches("\\d{1,9}"))
+						{
+							System.out.println("Error! The target of -q must be a non-negative index.");
+							System.exit(1);
+						}
+						target = Integer.parseInt(args[++i]);
+					}
+				}
+				else
+					filename = args[i];
+			}
+			if(deltaStepping && source < 0)
+			{
+				System.out.println("Error! -ds needs a query -q source [target].");
+				System.exit(1);
+			}
+			if(route && (bidirectional || hierarchy || deltaStepping || landmarkCount > 0 || landmarkFile != null))
+			{
+				System.out.println("Error! -path cannot be combined with -bd, -alt, -lm, -ch or -ds.");
+				System.exit(1);
+			}
+			if(output != null && target >= 0)
+			{
+				System.out.println("Error! -o and -ob write distance rows, a query -q source target prints one distance.");
+				System.exit(1);
+			}
+
+			if(filename == null)		 	//the graph info is input by the user
 			{
 				System.out.println("Enter graph information:");
-				edges = inputEdges();	
+				g = matrix ? GraphLoader.readMatrix(System.in) : GraphLoader.read(System.in);	
 			}
-			else if(args.length ==2)		//the graph info is read from the designated file
+			else							//the graph info is read from the designated file
 			{
 				System.out.println("Load graph information from the file...");
-				String filename = args[1];
-				edges = loadEdges(filename);
+				g = matrix ? GraphLoader.loadMatrix(filename) : GraphLoader.load(filename);
+			}
+			n = g.getNumberOfNodes();
+			if(source >= n || target >= n)
+			{
+				System.out.println("Error! Node index of -q out of range 0.." + (n - 1) + ".");
+				System.exit(1);
 			}
 			
-			n = getNumberOfNodes(edges);
-			g = buildGraph(edges, n);
-			double[][] distVec = new double[n][n];
-			
-			if(args[0].equals("-is"))		//simple scheme
-			{	
-				System.out.println("Simple scheme:");
-				distVec = simpleScheme(g);
+			if(scheme == Scheme.BUCKET && BucketQueue.maxWeight(g, BUCKET_RANGE) < 0)
+				System.out.println(scheme.getName() + " needs integer weights in 0.." + BUCKET_RANGE 
+						+ ", using the " + arity + "-ary heap scheme:");
+			else if(scheme == Scheme.FLOYD && source >= 0)
+				System.out.println(scheme.getName() + " computes all pairs at once, using the " 
+						+ arity + "-ary heap scheme for one source:");
+			else if(scheme == Scheme.DHEAP)
+				System.out.println(arity + "-ary heap scheme:");
+			else
+				System.out.println(scheme.getName() + ":");
+			if(target >= 0 && hierarchy)
+			{
+				ContractionHierarchy ch = new ContractionHierarchy(g);
+				System.out.println("preprocessing: " + ch.getPreprocessingTime() + " ms, " + ch.getShortcuts() + " shortcuts"
+						+ (ch.hasHierarchy() ? "" : ", too many for a hierarchy, using bidirectional search"));
+				System.out.println("distance from " + source + " to " + target + ": " 
+						+ ch.distance(source, target) + " (" + ch.getSettled() + " nodes settled)");
+				return;
 			}
-			else if(args[0].equals("-if"))	//fibonacci heap scheme
+			if(target >= 0 && (landmarkCount > 0 || landmarkFile != null))
 			{
-				System.out.println("Fibonacci heap scheme:");
-				distVec = fheapScheme(g);
+				Landmarks landmarks = null;
+				if(landmarkFile != null && new File(landmarkFile).exists())
+				{
+					try
+					{
+						landmarks = Landmarks.load(landmarkFile, g);
+					}
+					catch(IOException e)
+					{
+						System.out.println("Error! " + e.getMessage() + ".");
+						System.exit(1);
+					}
+				}
+				else
+				{
+					landmarks = Landmarks.select(g, landmarkCount > 0 ? landmarkCount : 16);
+					if(landmarkFile != null)
+						landmarks.save(landmarkFile);
+				}
+				AltDijkstra alt = new AltDijkstra(g, landmarks);
+				System.out.println("distance from " + source + " to " + target + ": " 
+						+ alt.distance(source, target) + " (" + alt.getSettled() + " nodes settled)");
+				return;
 			}
-			else if(args[0].equals("-ib"))	//binomial heap scheme
+			if(target >= 0 && bidirectional)
 			{
-				System.out.println("Binomial heap scheme:");
-				distVec = bheapScheme(g);
+				BidirectionalDijkstra bd = new BidirectionalDijkstra(g);
+				System.out.println("distance from " + source + " to " + target + ": " 
+						+ bd.distance(source, target) + " (" + bd.getSettled() + " nodes settled)");
+				return;
 			}
-			
-			System.out.print("node \t");
-			for(int i=0; i<n; i++)
-				System.out.print(i + "\t");
-			System.out.println();
-			for(int i=0; i<n; i++)
+			if(source >= 0 && deltaStepping)
 			{
-				System.out.print(i + "\t");
-				for(int j=0; j<n; j++)
+				DeltaStepping ds = new DeltaStepping(g, delta > 0 ? delta : DeltaStepping.defaultDelta(g), threads);
+				double[] dist = ds.shortestPaths(source);
+				ds.shutdown();
+				System.out.println("delta-stepping with delta " + ds.getDelta() + " on " + threads + " threads:");
+				if(target >= 0)
+					System.out.println("distance from " + source + " to " + target + ": " + dist[target]);
+				else
 				{
-					if(distVec[i][j] == Double.POSITIVE_INFINITY)
-						System.out.print("?\t");
-					else
-						System.out.print(distVec[i][j] + "\t");
+					RowSink sink = openSink(output, binary);
+					sink.begin(n);
+					sink.row(source, dist);
+					sink.end();
 				}
-				System.out.println();
+				return;
+			}
+			Dijkstra dijkstra = new Dijkstra(g, scheme, arity);
+			if(counters != null)
+				dijkstra.setMetrics(counters);
+			if(target >= 0 && route)		//one search, stopped at the target, gives both the path and the distance
+			{
+				int[] nodes = dijkstra.path(source, target);
+				System.out.println("distance from " + source + " to " + target + ": " + dijkstra.getPathDistance());
+				StringBuilder path = new StringBuilder();
+				for(int v : nodes)
+					path.append(path.length() > 0 ? " -> " : "").append(v);
+				System.out.println("path from " + source + " to " + target + ": " 
+						+ (path.length() > 0 ? path : "none"));
+			}
+			else if(target >= 0)
+			{
+				System.out.println("distance from " + source + " to " + target + ": " 
+						+ dijkstra.distance(source, target));
+			}
+			else
+			{
+				RowSink sink = openSink(output, binary);
+				if(source >= 0)
+				{
+					sink.begin(n);
+					sink.row(source, dijkstra.shortestPaths(source));
+					sink.end();
+				}
+				else
+					allPairs(g, scheme, arity, threads, sink, counters);	//every row is written as soon as it is computed
 			}
+			if(counters != null)
+				System.out.println(counters);
 		}
 	}
 	
+	/**
+	 * open the sink of the distance rows
+	 * @param output is the file, null for the console
+	 * @param binary is true to write the rows in binary form
+	 * @return the sink
+	 * @throws IOException
+	 */
+	private static RowSink openSink(String output, boolean binary) throws IOException
+	{
+		if(output == null)
+			return new TextRowSink(System.out);
+		return binary ? new BinaryRowSink(new FileOutputStream(output)) : new TextRowSink(new FileWriter(output), true);
+	}
+
 	/**
 	 * random mode, generate a graph randomly, 
-	 * and then compare the performance of three different schemes
+	 * and then compare the performance of every scheme
+	 * @param seed is the seed of the graph generator, the same seed gives the same graphs
 	 */
-	public static void randomMode()
+	public static void randomMode(long seed)
 	{
 		int n = 0; 								//number of node in graph
 		double density; 
-		Edge[] edges;
-		Edge tempEdge;
-		Gnode[] g = null;
-		int numOfEdges, currentNum;
-		int start, end;
-		Random gen = new Random();
+		CsrGraph g = null;
 		boolean isConnected = false;
-		double[] time = new double[3];
+		Scheme[] schemes = Scheme.values();
+		double[] time = new double[schemes.length];
+		int[] peak = new int[schemes.length];		//peak heap size of every scheme
+		double[][] distVec;
+		Dijkstra dijkstra;
 		int percentage;
-		boolean duplicateEdge;
-		System.out.println("Number of vertices\t" + "Density\t\t" + "Simple scheme\t" + "F-heap scheme\t" + "B-heap scheme");
+		System.out.print("Number of vertices\t" + "Density\t\t");
+		for(Scheme scheme : schemes)
+			System.out.print(scheme.getColumn() + "\t");
+		for(Scheme scheme : schemes)
+			System.out.print(scheme.getColumn() + " peak\t");
+		System.out.println();
 		for(int i=100; i<=500; i = i + 100)
 			for(int j=1; j<=10; j++)
 			{
 				isConnected = false;
 				n = i;
 				density = j * 0.1;
-				numOfEdges = (int) (n * (n-1) * density);
-				edges = new Edge[numOfEdges];
-				while(!isConnected)			//execute the three schemes only when the graph is a connected
+				while(!isConnected)			//execute the schemes only when the graph is a connected
 				{
-					currentNum = 0;
-					while(currentNum < numOfEdges)		//generate n*(n-1)*density edges
-					{
-						start = gen.nextInt(n);
-						end = gen.nextInt(n);
-						if(start == end)
-							continue;
-						
-						else
-						{
-							tempEdge = new Edge(start, end, gen.nextInt(1000) + 1);
-							duplicateEdge = false;
-							for(Edge e : edges)
-							{
-								if(tempEdge.equals(e))	//check whether the new generated edge already exists
-								{	
-									duplicateEdge = true;
-									break;
-								}
-							}
-							
-							if(duplicateEdge == false)
-							{
-								edges[currentNum] = tempEdge;
-								currentNum ++;
-							}
-
-						}
-					}
-					g = buildGraph(edges, n);
+					g = new GraphGenerator(seed++, 1000).uniform(n, density);
 					isConnected = isConnected(g);		//test whether the generated graph is connected
 				}
 				
-				time[0] = System.currentTimeMillis();
-				simpleScheme(g);
-				time[0] = System.currentTimeMillis() - time[0];
-				
-				time[1] = System.currentTimeMillis();
-				fheapScheme(g);
-				time[1] = System.currentTimeMillis() - time[1];
-				
-				time[2] = System.currentTimeMillis();
-				bheapScheme(g);
-				time[2] = System.currentTimeMillis() - time[2];
+				for(int k=0; k<schemes.length; k++)
+				{
+					time[k] = System.currentTimeMillis();
+					if(schemes[k] == Scheme.FLOYD)		//no heap, the whole matrix is computed at once
+					{
+						distVec = allPairs(g, schemes[k], DHEAP_ARITY, 1);
+						time[k] = System.currentTimeMillis() - time[k];
+						peak[k] = 0;
+						continue;
+					}
+					distVec = new double[n][n];
+					dijkstra = new Dijkstra(g, schemes[k], DHEAP_ARITY);
+					for(int source=0; source<n; source++)
+						dijkstra.shortestPaths(source, distVec[source]);
+					time[k] = System.currentTimeMillis() - time[k];
+					peak[k] = dijkstra.getPeakHeapSize();
+				}
 				
 				percentage = j * 10;
-				System.out.println(n + "\t\t\t" + percentage +"%\t\t" + time[0] + "\t\t" + time[1] + "\t\t" + time[2] );
+				System.out.print(n + "\t\t\t" + percentage +"%\t\t");
+				for(int k=0; k<schemes.length; k++)
+					System.out.print(time[k] + "\t\t");
+				for(int k=0; k<schemes.length; k++)
+					System.out.print(peak[k] + "\t\t");
+				System.out.println();
 			}
 	}
 	
 	/**
-	 * simple scheme
+	 * generate a random graph of the family given on the command line:
+	 * -g uniform n m seed file, -g grid rows cols seed file, or -g powerlaw n m exponent seed file,
+	 * distances are drawn from 1..1000
+	 * @param args are the command line arguments
+	 * @return the graph
+	 */
+	public static CsrGraph generate(String[] args)
+	{
+		String family = args[1];
+		if(family.equals("uniform") && args.length == 6)
+			return new GraphGenerator(Long.parseLong(args[4]), 1000).uniform(Integer.parseInt(args[2]), Long.parseLong(args[3]));
+		if(family.equals("grid") && args.length == 6)
+			return new GraphGenerator(Long.parseLong(args[4]), 1000).grid(Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+		if(family.equals("powerlaw") && args.length == 7)
+			return new GraphGenerator(Long.parseLong(args[5]), 1000).powerLaw(Integer.parseInt(args[2]), 
+					Long.parseLong(args[3]), Double.parseDouble(args[4]));
+		System.out.println("Error! Unknown graph family " + family + " or wrong number of arguments.");
+		System.exit(1);
+		return null;
+	}
+	
+	/**
+	 * compute the shortest distances between all pairs of nodes
 	 * @param g is the graph
+	 * @param scheme is the scheme used from every source
+	 * @param arity is the arity of the d-ary heap scheme
+	 * @param threads is the number of threads, the sources are computed in parallel if it is larger than 1
 	 * @return shortest distance array
 	 */
-	public static double[][] simpleScheme(Gnode[] g)
+	public static double[][] allPairs(CsrGraph g, Scheme scheme, int arity, int threads)
 	{
-		int n = g.length;
-		double[][] distVec = new double[n][n];
-		for(int i=0; i<n; i++)
-			for(int j=0; j<n; j++)
-				distVec[i][j] = INFINITY;
-		
-		int minIndex = 0;
-		double minDist;
-		Set<Gnode> V = new HashSet<Gnode>();	//sets of nodes, the shortest paths to those nodes are not yet found
-		
-		for(int source=0; source<n; source++)
+		if(scheme == Scheme.FLOYD)
 		{
-			distVec[source][source] = 0;
-			
-			V.clear();
-			for(Gnode gnode : g)
-			{
-				V.add(gnode);
-			}
-			
-			
-			while(!V.isEmpty())		//find shortest path to n nodes
-			{
-				minDist = Double.POSITIVE_INFINITY;
-				
-				for(Gnode gnode : V)	//find the node that has the shortest distance among all undetermined nodes
-				{
-					if(minDist > distVec[source][gnode.getIndex()])
-					{
-						minDist = distVec[source][gnode.getIndex()];
-						minIndex = gnode.getIndex();
-					}
-				}
-				
-				V.remove(g[minIndex]);
-				
-				//the distance between the source and a neighbor of the new added node may be reduced
-				for(Adjnode an : g[minIndex].getAdjnodes())
-				{
-					if(distVec[source][an.getIndex()] > distVec[source][minIndex] + an.getDistance())
-						distVec[source][an.getIndex()] = distVec[source][minIndex] + an.getDistance();
-				}	
-			}
+			FloydWarshall fw = new FloydWarshall(g);
+			fw.run(threads);
+			double[][] distVec = new double[fw.getNumberOfNodes()][fw.getNumberOfNodes()];
+			for(int source=0; source<distVec.length; source++)
+				fw.getRow(source, distVec[source]);
+			return distVec;
 		}
+		if(threads > 1)
+			return ParallelAllPairs.run(g, scheme, arity, threads);
+		
+		int n = g.getNumberOfNodes();
+		double[][] distVec = new double[n][n];
+		Dijkstra dijkstra = new Dijkstra(g, scheme, arity);
+		for(int source=0; source<n; source++)
+			dijkstra.shortestPaths(source, distVec[source]);
 		return distVec;
 	}
 	
 	/**
-	 * Fibonacci heap scheme
+	 * compute the shortest distances between all pairs of nodes, and hand every row
+	 * to the sink in increasing order of the source instead of keeping the whole array
 	 * @param g is the graph
-	 * @return the shortest distance array
+	 * @param scheme is the scheme used from every source
+	 * @param arity is the arity of the d-ary heap scheme
+	 * @param threads is the number of threads, the sources are computed in parallel if it is larger than 1
+	 * @param sink receives the rows
+	 * @throws IOException if the sink fails
 	 */
-	public static double[][] fheapScheme(Gnode[] g)
+	public static void allPairs(CsrGraph g, Scheme scheme, int arity, int threads, RowSink sink) throws IOException
 	{
-		FibonacciHeap fheap = new FibonacciHeap();
-		int n = g.length;
-		double[][] distVec = new double[n][n];
-		for(int i=0; i<n; i++)
-			for(int j=0; j<n; j++)
-				distVec[i][j] = INFINITY;
-		int minIndex = 0;
-		Set<Gnode> V = new HashSet<Gnode>();
+		allPairs(g, scheme, arity, threads, sink, null);
+	}
 	
-		for(int source=0; source<n; source++)
+	/**
+	 * compute the shortest distances between all pairs of nodes, hand every row
+	 * to the sink in increasing order of the source, and count the operations
+	 * @param g is the graph
+	 * @param scheme is the scheme used from every source
+	 * @param arity is the arity of the d-ary heap scheme
+	 * @param threads is the number of threads, the sources are computed in parallel if it is larger than 1
+	 * @param sink receives the rows
+	 * @param counters receives the operations of every source, null to count nothing
+	 * @throws IOException if the sink fails
+	 */
+	public static void allPairs(CsrGraph g, Scheme scheme, int arity, int threads, RowSink sink,
+			OperationCounters counters) throws IOException
+	{
+		if(scheme == Scheme.FLOYD)			//no heap operations to count
 		{
-			distVec[source][source] = 0;
-			V.clear();
-			for(Gnode gnode : g)
+			FloydWarshall fw = new FloydWarshall(g);
+			fw.run(threads);
+			double[] row = new double[fw.getNumberOfNodes()];
+			sink.begin(row.length);
+			for(int source=0; source<row.length; source++)
 			{
-				V.add(gnode);
-			}
-			
-			fheap.insert(source, 0);
-			
-			V.remove(g[source]);
-			
-			while(fheap.getMin() != null)
-			{
-				minIndex = fheap.extractMin().getIndex();
-				//distance to the adjacent nodes of the recently removed node may be reduced
-				for(Adjnode an : g[minIndex].getAdjnodes())
-				{
-					if(distVec[source][an.getIndex()] > distVec[source][minIndex] + an.getDistance())
-					{
-						distVec[source][an.getIndex()] = distVec[source][minIndex] + an.getDistance();
-						//if the node has not been inserted to the heap, then insert it to the heap
-						if(V.contains(g[an.getIndex()]))
-						{
-							fheap.insert(an.getIndex(), distVec[source][an.getIndex()]);
-							V.remove(g[an.getIndex()]);
-						}
-						
-						//if the node is already in the heap, find the corresponding heap node, and decrease the distance
-						else
-							fheap.decreaseKey(fheap.searchNode(an.getIndex(), fheap.getMin()), distVec[source][an.getIndex()]);
-					}
-				}	
+				fw.getRow(source, row);
+				sink.row(source, row);
 			}
+			sink.end();
+			return;
 		}
-		return distVec;
+		if(threads > 1)
+		{
+			ParallelAllPairs.stream(g, scheme, arity, threads, sink, counters);
+			return;
+		}
+		
+		int n = g.getNumberOfNodes();
+		double[] dist = new double[n];
+		Dijkstra dijkstra = new Dijkstra(g, scheme, arity);
+		if(counters != null)
+			dijkstra.setMetrics(counters);
+		sink.begin(n);
+		for(int source=0; source<n; source++)
+		{
+			dijkstra.shortestPaths(source, dist);
+			sink.row(source, dist);
+		}
+		sink.end();
+	}
+	
+	/**
+	 * simple scheme
+	 * @param g is the graph
+	 * @return shortest distance array
+	 */
+	public static double[][] simpleScheme(CsrGraph g)
+	{
+		return allPairs(g, Scheme.SIMPLE, DHEAP_ARITY, 1);
+	}
+	
+	/**
+	 * Fibonacci heap scheme
+	 * @param g is the graph
+	 * @return the shortest distance array
+	 */
+	public static double[][] fheapScheme(CsrGraph g)
+	{
+		return allPairs(g, Scheme.FHEAP, DHEAP_ARITY, 1);
 	}
 	
 	/**
@@ -277,112 +497,60 @@ public class ssp
 	 * @param g is the graph
 	 * @return the shortest distance array
 	 */
-	public static double[][] bheapScheme(Gnode[] g)
+	public static double[][] bheapScheme(CsrGraph g)
 	{
-		BinomialHeap bheap = new BinomialHeap();
-		int n = g.length;
-		double[][] distVec = new double[n][n];
-		for(int i=0; i<n; i++)
-			for(int j=0; j<n; j++)
-				distVec[i][j] = INFINITY;
-		int minIndex = 0;
-		Set<Gnode> V = new HashSet<Gnode>();
-		
-		for(int source=0; source<n; source++)
-		{
-			distVec[source][source] = 0;
-			for(Gnode gnode : g)
-			{
-				V.add(gnode);
-			}
-			
-			bheap.insert(source, 0);
-			V.remove(g[source]);
-			
-			while(bheap.getRoot() != null)
-			{
-				minIndex = bheap.extractMin().getIndex();	
-				for(Adjnode an : g[minIndex].getAdjnodes())
-				{
-					if(distVec[source][an.getIndex()] > distVec[source][minIndex] + an.getDistance())
-					{
-						distVec[source][an.getIndex()] = distVec[source][minIndex] + an.getDistance();
-						if(V.contains(g[an.getIndex()]))
-						{
-							bheap.insert(an.getIndex(), distVec[source][an.getIndex()]);
-							V.remove(g[an.getIndex()]);
-						}
-						
-						else bheap.decreaseKey(bheap.searchNode(an.getIndex(), bheap.getRoot()), distVec[source][an.getIndex()]);
-					}
-				}	
-			}
-		}
-		return distVec;
+		return allPairs(g, Scheme.BHEAP, DHEAP_ARITY, 1);
 	}
-
+	
 	/**
-	 * input the edge information
-	 * @return the edges
+	 * d-ary heap scheme
+	 * @param g is the graph
+	 * @param arity is the number of children of every heap slot
+	 * @return the shortest distance array
 	 */
-	public static Edge[] inputEdges()
+	public static double[][] dheapScheme(CsrGraph g, int arity)
 	{
-		Scanner in = new Scanner(System.in);
-		String s;
-		String[] temp, temp2;
-		StringBuffer buffer = new StringBuffer();
-		while(!(s = in.nextLine()).equals("*"))
-		{
-			buffer.append(s);
-			buffer.append("/");
-		}
-		
-		String combination = buffer.toString();
-			
-		temp = combination.split("/");
-		Edge[] edges = new Edge[temp.length];
-		
-		for(int i=0; i<temp.length; i++)	
-		{
-			temp2 = temp[i].split(" ");
-			edges[i] = new Edge(Integer.parseInt(temp2[0]), Integer.parseInt(temp2[1]), Integer.parseInt(temp2[2]));
-		}
-		
-		in.close();
-		return edges;
+		return allPairs(g, Scheme.DHEAP, arity, 1);
 	}
 	
 	/**
-	 * read edge information from a file
-	 * @param filename is the file that stores the edge information
-	 * @return the edges
-	 * @throws FileNotFoundException
+	 * bucket queue scheme, the d-ary heap scheme unless the weights are integers in 0..BUCKET_RANGE
+	 * @param g is the graph
+	 * @return the shortest distance array
 	 */
-	public static Edge[] loadEdges(String filename) throws FileNotFoundException
+	public static double[][] bucketScheme(CsrGraph g)
 	{
-		Scanner in = new Scanner(new File(filename));
-		String s;
-		String[] temp, temp2;
-		StringBuffer buffer = new StringBuffer();
-		while(!(s = in.nextLine()).equals("*"))
-		{
-			buffer.append(s);
-			buffer.append("/");
-		}
-		
-		String combination = buffer.toString();
-			
-		temp = combination.split("/");
-		Edge[] edges = new Edge[temp.length];
-		
-		for(int i=0; i<temp.length; i++)	
-		{
-			temp2 = temp[i].split(" ");
-			edges[i] = new Edge(Integer.parseInt(temp2[0]), Integer.parseInt(temp2[1]), Integer.parseInt(temp2[2]));
-		}
-		
-		in.close();
-		return edges;
+		return allPairs(g, Scheme.BUCKET, DHEAP_ARITY, 1);
+	}
+	
+	/**
+	 * lazy binary heap scheme
+	 * @param g is the graph
+	 * @return the shortest distance array
+	 */
+	public static double[][] lazyScheme(CsrGraph g)
+	{
+		return allPairs(g, Scheme.LAZY, DHEAP_ARITY, 1);
+	}
+	
+	/**
+	 * pairing heap scheme
+	 * @param g is the graph
+	 * @return the shortest distance array
+	 */
+	public static double[][] pheapScheme(CsrGraph g)
+	{
+		return allPairs(g, Scheme.PAIRING, DHEAP_ARITY, 1);
+	}
+	
+	/**
+	 * blocked Floyd-Warshall scheme
+	 * @param g is the graph
+	 * @return the shortest distance array
+	 */
+	public static double[][] floydScheme(CsrGraph g)
+	{
+		return allPairs(g, Scheme.FLOYD, DHEAP_ARITY, 1);
 	}
 	
 	/**
@@ -408,41 +576,20 @@ public class ssp
 	 * @param n is the number of nodes
 	 * @return the built graph
 	 */
-	public static Gnode[] buildGraph(Edge[] edges, int n)
+	public static CsrGraph buildGraph(Edge[] edges, int n)
 	{
-		Gnode[] gnodes = new Gnode[n];
-		for(int i=0; i<n; i++)
-		{
-			gnodes[i] = new Gnode(i);
-		}
-		
-		for(Edge e: edges)
-		{
-			gnodes[e.getStart()].insertNeighbor(e.getEnd(), e.getDistance());
-		}
-			
-		return gnodes;
+		return new CsrGraph(edges, n);
 	}
 	
 	/**
-	 * test whether the graph is connected or not
+	 * test whether the graph is connected or not, i.e. every node can reach every other node,
+	 * in O(n+m) time
 	 * @param g represents the graph
 	 * @return true is the graph is connected
 	 */
-	public static boolean isConnected(Gnode[] g)
+	public static boolean isConnected(CsrGraph g)
 	{
-		double[][] distVec = simpleScheme(g);		
-		//execute simple scheme, if the distance between any pair of nodes is 
-		//larger than the possible maximum distance if they are connected, then
-		//the graph is not connected
-		
-		for(int i=0; i<g.length; i++)
-			for(int j=0; j<g.length; j++)
-			{
-				if(distVec[i][i] > 1000 * g.length + 1)
-					return false;
-			}
-		return true;
+		return new StronglyConnectedComponents(g).isStronglyConnected();
 	}
 
 }